@@ -0,0 +1,63 @@
+#!/usr/bin/env bash
+# Compares the throughput of the platform-thread and virtual-thread modes at 1k and 10k concurrent connections.
+#
+# Requires wrk (https://github.com/wg/wrk) and a file descriptor limit above the connection count:
+#   ulimit -n 65535
+#   ./bench/connections.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+DURATION="${DURATION:-30s}"
+THREADS="${THREADS:-8}"
+PORT="${PORT:-8080}"
+CONNECTIONS="${CONNECTIONS:-1000 10000}"
+BASE_URL="http://localhost:${PORT}"
+
+./gradlew -q bootJar
+JAR="$(ls build/libs/*-SNAPSHOT.jar | grep -v plain | head -n 1)"
+
+wait_until_up() {
+  for _ in $(seq 1 60); do
+    curl -sf "${BASE_URL}/api/notes/?pageSize=1" > /dev/null && return 0
+    sleep 1
+  done
+  echo "application did not start" >&2
+  return 1
+}
+
+seed() {
+  for i in $(seq 1 100); do
+    curl -sf -X POST "${BASE_URL}/api/notes/" \
+      -H 'Content-Type: application/json' \
+      -d "{\"title\": \"bench note ${i}\", \"body\": \"body of bench note ${i}\"}" > /dev/null
+  done
+}
+
+run_mode() {
+  local mode="$1" profile="$2"
+  java --enable-preview -Djdk.tracePinnedThreads=short -jar "${JAR}" \
+    --server.port="${PORT}" --spring.profiles.active="${profile}" > "build/bench-${mode}.log" 2>&1 &
+  local pid=$!
+  trap "kill ${pid} 2> /dev/null || true" EXIT
+
+  wait_until_up
+  seed
+
+  for connections in ${CONNECTIONS}; do
+    echo "== ${mode} threads, ${connections} connections"
+    wrk -t"${THREADS}" -c"${connections}" -d"${DURATION}" --latency "${BASE_URL}/api/notes/1" \
+      | grep -E "Requests/sec|Latency|99%|Socket errors" || true
+  done
+
+  kill "${pid}"
+  wait "${pid}" 2> /dev/null || true
+  trap - EXIT
+
+  if grep -q "VirtualThread\\|onPinned" "build/bench-${mode}.log"; then
+    echo "!! pinned virtual threads reported, see build/bench-${mode}.log"
+  fi
+}
+
+run_mode platform default
+run_mode virtual virtual
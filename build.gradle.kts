@@ -2,6 +2,8 @@ plugins {
     java
     id("org.springframework.boot") version "3.2.5"
     id("io.spring.dependency-management") version "1.1.4"
+    id("me.champeau.jmh") version "0.7.2"
+    id("org.hibernate.orm") version "6.4.4.Final"
 }
 
 group = "com.ota.api"
@@ -26,16 +28,28 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-validation")
+    implementation("com.github.ben-manes.caffeine:caffeine")
     compileOnly("org.projectlombok:lombok")
     developmentOnly("org.springframework.boot:spring-boot-devtools")
     runtimeOnly("com.h2database:h2")
     annotationProcessor("org.springframework.boot:spring-boot-configuration-processor")
     annotationProcessor("org.projectlombok:lombok")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
+    jmhImplementation("org.springframework:spring-test")
+    jmhCompileOnly("org.projectlombok:lombok")
+    jmhAnnotationProcessor("org.projectlombok:lombok")
+}
+
+hibernate {
+    enhancement {
+        // lets the compressed note bodies be fetched lazily, see Note.bodyData
+        enableLazyInitialization.set(true)
+    }
 }
 
 tasks.bootRun {
-    jvmArgs("--enable-preview")
+    // report virtual threads pinned to their carrier, e.g. blocking inside a synchronized block
+    jvmArgs("--enable-preview", "-Djdk.tracePinnedThreads=short")
 }
 
 tasks.withType<JavaCompile> {
@@ -44,5 +58,92 @@ tasks.withType<JavaCompile> {
 
 tasks.withType<Test> {
     useJUnitPlatform()
-    jvmArgs("--enable-preview")
+    jvmArgs("--enable-preview", "-Djdk.tracePinnedThreads=short")
+}
+
+val jmhResultsFile = layout.buildDirectory.file("results/jmh/results.json")
+val jmhBaselineFile = layout.projectDirectory.file("src/jmh/baseline.json")
+
+jmh {
+    jvmArgs.add("--enable-preview")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(jmhResultsFile)
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    if (project.hasProperty("jmhIncludes")) {
+        includes.add(project.property("jmhIncludes").toString())
+    }
+}
+
+tasks.register<Copy>("jmhBaseline") {
+    description = "Records the latest JMH results as the checked-in baseline."
+    group = "benchmark"
+    from(jmhResultsFile)
+    into(jmhBaselineFile.asFile.parentFile)
+    rename { jmhBaselineFile.asFile.name }
+}
+
+tasks.register("jmhCompare") {
+    description = "Compares the latest JMH results with the checked-in baseline, run ./gradlew jmh first."
+    group = "benchmark"
+    doLast {
+        val resultsFile = jmhResultsFile.get().asFile
+        val baselineFile = jmhBaselineFile.asFile
+        if (!resultsFile.exists()) {
+            throw GradleException("No JMH results in $resultsFile, run ./gradlew jmh first.")
+        }
+        // without a baseline there is nothing to gate on, which must not read as a pass
+        if (!baselineFile.exists()) {
+            throw GradleException("No baseline in $baselineFile, record one on this machine with ./gradlew jmh jmhBaseline.")
+        }
+
+        // benchmark (with its params) -> time per operation and bytes allocated per operation
+        fun load(file: File): Map<String, Pair<Double, Double?>> =
+            (groovy.json.JsonSlurper().parse(file) as List<*>).associate { entry ->
+                val run = entry as Map<*, *>
+                val params = (run["params"] as Map<*, *>?)?.entries?.joinToString(",", "(", ")") { "${it.key}=${it.value}" } ?: ""
+                val score = ((run["primaryMetric"] as Map<*, *>)["score"] as Number).toDouble()
+                val allocation = (run["secondaryMetrics"] as Map<*, *>?)?.entries
+                    ?.firstOrNull { it.key.toString().endsWith("gc.alloc.rate.norm") }
+                    ?.let { ((it.value as Map<*, *>)["score"] as Number).toDouble() }
+                "${run["benchmark"]}$params" to (score to allocation)
+            }
+
+        val threshold = (project.findProperty("jmhThreshold")?.toString()?.toDouble() ?: 10.0) / 100
+        val baseline = load(baselineFile)
+        val results = load(resultsFile)
+        var regressions = 0
+
+        println(String.format("%-80s %12s %12s %8s %12s %12s", "benchmark", "base ns/op", "ns/op", "delta", "base B/op", "B/op"))
+        for ((benchmark, result) in results.toSortedMap()) {
+            val base = baseline[benchmark]
+            if (base == null) {
+                println(String.format("%-80s %12s %12.1f %8s %12s %12s", benchmark, "-", result.first, "new", "-", result.second?.let { "%.0f".format(it) } ?: "-"))
+                continue
+            }
+
+            val delta = (result.first - base.first) / base.first
+            val regressed = delta > threshold || (base.second != null && result.second != null && result.second!! > base.second!! * (1 + threshold))
+            if (regressed) {
+                regressions++
+            }
+            println(String.format(
+                "%-80s %12.1f %12.1f %+7.1f%% %12s %12s%s",
+                benchmark, base.first, result.first, delta * 100,
+                base.second?.let { "%.0f".format(it) } ?: "-", result.second?.let { "%.0f".format(it) } ?: "-",
+                if (regressed) "  REGRESSION" else ""
+            ))
+        }
+
+        val compared = results.keys.count { it in baseline }
+        if (compared == 0) {
+            throw GradleException("None of the ${results.size} benchmark(s) is in the baseline $baselineFile, record a new one with ./gradlew jmhBaseline.")
+        }
+
+        if (regressions > 0 && project.hasProperty("jmhFailOnRegression")) {
+            throw GradleException("$regressions benchmark(s) regressed by more than ${threshold * 100}%.")
+        }
+    }
 }
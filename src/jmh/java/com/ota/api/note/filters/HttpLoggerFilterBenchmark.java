@@ -0,0 +1,58 @@
+package com.ota.api.note.filters;
+
+import com.ota.api.note.Config;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the path matching {@link HttpLoggerFilter} does before deciding how to log a request:
+ * the regular expressions it used to compile on every call against the precompiled {@link HttpLogRules}.
+ *
+ * @author Miko Chu
+ * @since 2024-05-13
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HttpLoggerFilterBenchmark {
+    @Param({"/api/notes/42", "/swagger-ui/index.html"})
+    private String path;
+
+    private HttpLogRules rules;
+
+    @Setup
+    public void setUp() {
+        rules = new HttpLogRules(new Config.HttpLogger(
+                DataSize.ofKilobytes(64),
+                256,
+                1.0,
+                true,
+                Duration.ofSeconds(1),
+                List.of(
+                        new Config.HttpLogger.Rule(List.of("/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**", "/metrics", "/api/logs/**"), null, 1.0, true, true),
+                        new Config.HttpLogger.Rule(List.of("/api/notes/_export", "/api/notes/_import"), null, 1.0, false, false),
+                        new Config.HttpLogger.Rule(List.of(), "GET", 0.01, true, false)
+                )
+        ));
+    }
+
+    @Benchmark
+    public boolean matchRegex() {
+        String excludePattern = "/swagger-ui|/v3/api-docs|/metrics|/api/logs";
+        if (path.matches(STR.".*(\{excludePattern}).*")) {
+            return false;
+        }
+
+        String streamingPattern = "/api/notes/_export|/api/notes/_import";
+        return !path.matches(STR.".*(\{streamingPattern}).*");
+    }
+
+    @Benchmark
+    public Config.HttpLogger.Rule matchRules() {
+        return rules.match("GET", path);
+    }
+}
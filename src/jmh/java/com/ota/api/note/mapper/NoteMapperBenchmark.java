@@ -0,0 +1,38 @@
+package com.ota.api.note.mapper;
+
+import com.ota.api.note.models.dto.NoteDTO;
+import com.ota.api.note.models.entity.Note;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of mapping a note to its DTO, done for every note of every response.
+ *
+ * @author Miko Chu
+ * @since 2024-05-13
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NoteMapperBenchmark {
+    private final NoteMapper noteMapper = new NoteMapper();
+    private Note note;
+
+    @Setup
+    public void setUp() {
+        note = Note.builder()
+                .id(42L)
+                .title("Groceries for the week")
+                .body("Eggs, milk, bread, coffee and a few apples for the kids")
+                .dateCreated(new Date(1715000000000L))
+                .dateUpdated(new Date(1715600000000L))
+                .build();
+    }
+
+    @Benchmark
+    public NoteDTO toDTO() {
+        return noteMapper.toDTO(note);
+    }
+}
@@ -0,0 +1,63 @@
+package com.ota.api.note.spring;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the body capture of {@link CachedBodyHttpServletRequest} and {@link CachedBodyHttpServletResponse},
+ * from wrapping to decoding the copy, the way {@code HttpLoggerFilter} does on every request.
+ *
+ * @author Miko Chu
+ * @since 2024-05-13
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CachedBodyBenchmark {
+    @Param({"256", "65536"})
+    private int bodySize;
+
+    private final CaptureBufferPool bufferPool = new CaptureBufferPool(64 * 1024, 16);
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        body = "n".repeat(bodySize).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String request() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/notes/");
+        request.setContent(body);
+
+        CaptureBuffer capture = bufferPool.acquire();
+        try {
+            CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request, capture);
+            cachedRequest.getInputStream().readAllBytes();
+            return cachedRequest.getBody();
+        } finally {
+            bufferPool.release(capture);
+        }
+    }
+
+    @Benchmark
+    public String response() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        CaptureBuffer capture = bufferPool.acquire();
+        try {
+            CachedBodyHttpServletResponse cachedResponse = new CachedBodyHttpServletResponse(response, capture);
+            cachedResponse.getOutputStream().write(body);
+            cachedResponse.flushBuffer();
+            return cachedResponse.getBody();
+        } finally {
+            bufferPool.release(capture);
+        }
+    }
+}
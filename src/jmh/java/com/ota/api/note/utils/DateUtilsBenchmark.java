@@ -0,0 +1,30 @@
+package com.ota.api.note.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the formatting and parsing of the ISO-8601 dates exposed by the API.
+ *
+ * @author Miko Chu
+ * @since 2024-05-13
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateUtilsBenchmark {
+    private final Date date = new Date(1715600000123L);
+    private final String isoString = "2024-05-13T11:33:20.123Z";
+
+    @Benchmark
+    public String toISOString() {
+        return DateUtils.toISOString(date);
+    }
+
+    @Benchmark
+    public Date toISODate() {
+        return DateUtils.toISODate(isoString);
+    }
+}
@@ -0,0 +1,48 @@
+package com.ota.api.note.utils;
+
+import com.ota.api.note.models.dto.LogDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the serialization of a request log entry, done once per logged request,
+ * with the generic mapper and with the dedicated {@link LogRecordEncoder}.
+ *
+ * @author Miko Chu
+ * @since 2024-05-13
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JSONUtilsBenchmark {
+    @Param({"64", "4096"})
+    private int bodySize;
+
+    private LogDTO logDTO;
+
+    @Setup
+    public void setUp() {
+        String body = "{\"title\": \"a \\\"quoted\\\" title\", \"body\": \"" + "x".repeat(bodySize) + "\"}";
+        logDTO = LogDTO.builder()
+                .tracingId("0b3f8d0e-5d1c-4f7e-9f0b-3c7a1e2d4b5a")
+                .ipAddress("127.0.0.1")
+                .method("POST")
+                .path("/api/notes/")
+                .status(200)
+                .requestBody(body)
+                .responseBody(body)
+                .timestamp("2024-05-13T11:33:20.123Z")
+                .build();
+    }
+
+    @Benchmark
+    public String stringify() {
+        return JSONUtils.stringify(logDTO);
+    }
+
+    @Benchmark
+    public String encode() {
+        return LogRecordEncoder.encode(logDTO);
+    }
+}
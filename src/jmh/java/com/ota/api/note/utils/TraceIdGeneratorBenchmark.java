@@ -0,0 +1,28 @@
+package com.ota.api.note.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of a tracing id, against the {@code UUID.randomUUID()} formatting it replaced.
+ * Run it with several threads ({@code -t}) to see the contention on the shared {@code SecureRandom}.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TraceIdGeneratorBenchmark {
+    @Benchmark
+    public String randomUUID() {
+        return UUID.randomUUID().toString().toUpperCase().replace("-", "");
+    }
+
+    @Benchmark
+    public String next() {
+        return TraceIdGenerator.next();
+    }
+}
@@ -1,6 +1,11 @@
 package com.ota.api.note;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
 
 /**
  * A record representing environment configuration properties.
@@ -10,5 +15,229 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * @since 2024-04-27
  */
 @ConfigurationProperties(prefix = "app")
-public record Config(String tracingIdKey) {
+public record Config(
+        String tracingIdKey,
+        @DefaultValue LogPipeline logPipeline,
+        @DefaultValue LogStore logStore,
+        @DefaultValue NoteCache noteCache,
+        @DefaultValue NoteCount noteCount,
+        @DefaultValue NoteStorage noteStorage,
+        @DefaultValue Bulk bulk,
+        @DefaultValue Export export,
+        @DefaultValue NoteImport noteImport,
+        @DefaultValue HttpLogger httpLogger,
+        @DefaultValue Compression compression,
+        @DefaultValue Datasource datasource
+) {
+    /**
+     * Settings of the asynchronous request-log pipeline, bound from "app.log-pipeline".
+     *
+     * @param capacity        The maximum number of log records waiting to be written, extra records are dropped.
+     * @param batchSize       The maximum number of log records written in a single JDBC batch.
+     * @param flushInterval   The maximum time a log record waits for its batch to fill up.
+     * @param shutdownTimeout The maximum time to wait for the queue to drain when the application stops.
+     */
+    public record LogPipeline(
+            @DefaultValue("10000") int capacity,
+            @DefaultValue("200") int batchSize,
+            @DefaultValue("500ms") Duration flushInterval,
+            @DefaultValue("10s") Duration shutdownTimeout
+    ) {
+    }
+
+    /**
+     * Settings of the request-log store, bound from "app.log-store".
+     *
+     * @param type          Where the request logs go, "jpa" for the database through the log pipeline
+     *                      or "segment" for the memory-mapped segment files.
+     * @param directory     The directory of the segment files.
+     * @param segmentSize   The size of a segment file, at most 2GB.
+     * @param maxTotalSize  The disk space after which the oldest segments are deleted.
+     * @param maxAge        The age after which a segment is deleted, by its newest record.
+     * @param indexInterval The number of records between two entries of the sparse time index.
+     */
+    public record LogStore(
+            @DefaultValue("jpa") String type,
+            @DefaultValue("log-segments") String directory,
+            @DefaultValue("64MB") DataSize segmentSize,
+            @DefaultValue("1GB") DataSize maxTotalSize,
+            @DefaultValue("7d") Duration maxAge,
+            @DefaultValue("64") int indexInterval
+    ) {
+    }
+
+    /**
+     * Settings of the in-process note cache, bound from "app.note-cache".
+     *
+     * @param enabled          Whether {@code findOne} reads through the cache.
+     * @param maximumSize      The maximum number of notes kept in the cache.
+     * @param expireAfterWrite The time after which a cached note is reloaded from the database.
+     */
+    public record NoteCache(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("10000") long maximumSize,
+            @DefaultValue("10m") Duration expireAfterWrite
+    ) {
+    }
+
+    /**
+     * Settings of the cached counts of the note listing, bound from "app.note-count".
+     *
+     * @param maximumQueries   The maximum number of queries whose count is cached.
+     * @param expireAfterWrite The time after which a cached count is computed again, even without writes.
+     */
+    public record NoteCount(
+            @DefaultValue("1000") long maximumQueries,
+            @DefaultValue("1m") Duration expireAfterWrite
+    ) {
+    }
+
+    /**
+     * Settings of how the note bodies are stored, bound from "app.note-storage".
+     *
+     * @param inlineBodySize The length up to which a body is stored inline, longer bodies are stored compressed
+     *                       in a lazily read column with their leading characters inline. At most 1024.
+     */
+    public record NoteStorage(
+            @DefaultValue("1024") int inlineBodySize
+    ) {
+    }
+
+    /**
+     * Settings of the bulk endpoints, bound from "app.bulk".
+     *
+     * @param maxItems The maximum number of items accepted by a single bulk request.
+     */
+    public record Bulk(
+            @DefaultValue("1000") int maxItems
+    ) {
+    }
+
+    /**
+     * Settings of the note export, bound from "app.export".
+     *
+     * @param flushEvery The number of exported notes after which the response is flushed to the client.
+     */
+    public record Export(
+            @DefaultValue("500") int flushEvery
+    ) {
+    }
+
+    /**
+     * Settings of the note import, bound from "app.note-import".
+     *
+     * @param chunkSize         The number of records committed per transaction.
+     * @param maxReportedErrors The maximum number of rejected records detailed in the import summary.
+     */
+    public record NoteImport(
+            @DefaultValue("500") int chunkSize,
+            @DefaultValue("100") int maxReportedErrors
+    ) {
+    }
+
+    /**
+     * Settings of the request and response logging, bound from "app.http-logger".
+     * A request is logged according to the first rule matching its method and path, or to the defaults when none matches.
+     *
+     * @param maxBodySize    The maximum size of a request or response body kept in the log, larger bodies are truncated
+     *                       and marked as such. At most 64KB, the length of the log body columns.
+     * @param bufferPoolSize The maximum number of idle capture buffers kept for reuse.
+     * @param sampleRate     The default ratio of requests logged, between 0 and 1.
+     * @param captureBody    Whether the bodies are logged by default.
+     * @param slowThreshold  The duration after which a request is always logged, sampled or not.
+     * @param rules          The per-route rules, in order of precedence.
+     */
+    public record HttpLogger(
+            @DefaultValue("64KB") DataSize maxBodySize,
+            @DefaultValue("256") int bufferPoolSize,
+            @DefaultValue("1.0") double sampleRate,
+            @DefaultValue("true") boolean captureBody,
+            @DefaultValue("1s") Duration slowThreshold,
+            @DefaultValue List<Rule> rules
+    ) {
+        /**
+         * A logging rule of a set of routes, bound from "app.http-logger.rules[n]".
+         * Requests answered with a non-2xx status or slower than the threshold are logged even when not sampled, without their bodies.
+         *
+         * @param paths       The path patterns of the routes, such as {@code /api/notes/**}, or empty for any path.
+         * @param method      The HTTP method of the routes, or null for any method.
+         * @param sampleRate  The ratio of requests logged, between 0 and 1, or null for app.http-logger.sample-rate.
+         * @param captureBody Whether the bodies are logged, or null for app.http-logger.capture-body.
+         * @param exclude     Whether the routes are never logged.
+         */
+        public record Rule(
+                List<String> paths,
+                String method,
+                Double sampleRate,
+                Boolean captureBody,
+                @DefaultValue("false") boolean exclude
+        ) {
+        }
+    }
+
+    /**
+     * Settings of the gzip response compression, bound from "app.compression".
+     *
+     * @param enabled   Whether the responses are compressed for the clients accepting gzip.
+     * @param minSize   The size under which a response is sent as is, as compressing it wouldn't pay off.
+     * @param level     The deflate level, from 1 (fastest) to 9 (smallest).
+     * @param poolSize  The maximum number of idle deflaters kept for reuse.
+     * @param mimeTypes The compressible content types.
+     */
+    public record Compression(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("1KB") DataSize minSize,
+            @DefaultValue("6") int level,
+            @DefaultValue("64") int poolSize,
+            @DefaultValue({"application/json", "application/x-ndjson", "application/problem+json", "text/plain", "text/html"}) List<String> mimeTypes
+    ) {
+    }
+
+    /**
+     * Settings of the data sources beyond "spring.datasource", bound from "app.datasource".
+     *
+     * @param routing The routing of the read-only transactions to the read replicas.
+     */
+    public record Datasource(
+            @DefaultValue Routing routing
+    ) {
+        /**
+         * Settings of the read/write routing, bound from "app.datasource.routing".
+         *
+         * @param enabled             Whether the read-only transactions are routed to the replicas.
+         * @param strategy            How a replica is picked, "round-robin" or "least-loaded" by the connections in use.
+         * @param stickiness          The time the reads of a client stay on the primary after it writes,
+         *                            at least the replication lag.
+         * @param maxStickyClients    The maximum number of clients remembered for the stickiness.
+         * @param healthCheckInterval The time between two health checks of the replicas.
+         * @param healthCheckTimeout  The time a replica has to validate a connection.
+         * @param replicas            The read replicas.
+         */
+        public record Routing(
+                @DefaultValue("false") boolean enabled,
+                @DefaultValue("round-robin") String strategy,
+                @DefaultValue("5s") Duration stickiness,
+                @DefaultValue("100000") long maxStickyClients,
+                @DefaultValue("10s") Duration healthCheckInterval,
+                @DefaultValue("2s") Duration healthCheckTimeout,
+                @DefaultValue List<Replica> replicas
+        ) {
+        }
+
+        /**
+         * A read replica.
+         *
+         * @param url             The JDBC URL.
+         * @param username        The user name.
+         * @param password        The password.
+         * @param maximumPoolSize The maximum number of pooled connections.
+         */
+        public record Replica(
+                String url,
+                String username,
+                String password,
+                @DefaultValue("10") int maximumPoolSize
+        ) {
+        }
+    }
 }
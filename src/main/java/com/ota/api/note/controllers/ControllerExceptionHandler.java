@@ -1,6 +1,7 @@
 package com.ota.api.note.controllers;
 
 import com.ota.api.note.errors.NotFoundError;
+import com.ota.api.note.errors.PreconditionFailedError;
 import com.ota.api.note.errors.SimpleError;
 import com.ota.api.note.models.dto.ApiErrorDTO;
 import com.ota.api.note.spring.Response;
@@ -170,6 +171,24 @@ public class ControllerExceptionHandler extends ResponseEntityExceptionHandler {
                 .build();
     }
 
+    /**
+     * Handles {@link PreconditionFailedError} by building a user-friendly error response.
+     *
+     * @param ex      The {@link PreconditionFailedError} thrown
+     * @return {@link ResponseEntity} with error details
+     */
+    @ExceptionHandler({ PreconditionFailedError.class })
+    public ResponseEntity<Object> handlePreconditionFailed(PreconditionFailedError ex) {
+        val message = ex.getLocalizedMessage();
+        val apiError = new ApiErrorDTO(HttpStatus.PRECONDITION_FAILED, message, message);
+
+        return Response.builder()
+                .body(apiError)
+                .headers(new HttpHeaders())
+                .status(apiError.getStatus())
+                .build();
+    }
+
     /**
      * Handles {@link SimpleError} by building a user-friendly error response.
      *
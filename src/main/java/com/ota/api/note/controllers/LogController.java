@@ -0,0 +1,51 @@
+package com.ota.api.note.controllers;
+
+import com.ota.api.note.models.dto.ApiErrorDTO;
+import com.ota.api.note.models.dto.LogDTO;
+import com.ota.api.note.models.dto.LogQueryParamsDTO;
+import com.ota.api.note.models.dto.PaginatedDTO;
+import com.ota.api.note.services.LogService;
+import com.ota.api.note.spring.Response;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for querying the request logs, backed by whichever log store is configured.
+ * The requests to this controller aren't logged themselves.
+ * <p>
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+@RestController
+@RequestMapping("/api/logs")
+public class LogController {
+    private final LogService logService;
+
+    @Autowired
+    public LogController(LogService logService) {
+        this.logService = logService;
+    }
+
+    @Operation(summary = "Retrieve the request logs by tracing id, path prefix, status range and time window, oldest first with keyset pagination")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Found the logs"),
+            @ApiResponse(responseCode = "400", description = "Request param violation", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) }),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) })
+    })
+    @GetMapping
+    public ResponseEntity<PaginatedDTO<LogDTO>> find(LogQueryParamsDTO logQueryParams) {
+        return Response.<PaginatedDTO<LogDTO>>builder()
+                .status(HttpStatus.OK)
+                .body(this.logService.find(logQueryParams))
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.ota.api.note.controllers;
+
+import com.ota.api.note.metrics.RequestMetrics;
+import com.ota.api.note.services.LogPipeline;
+import com.ota.api.note.services.NoteCache;
+import com.ota.api.note.services.SegmentLogService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.val;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller exposing the request latencies and the component statistics in the Prometheus text format.
+ * <p>
+ * @author Miko Chu
+ * @since 2024-05-14
+ */
+@RestController
+public class MetricsController {
+    private static final MediaType PROMETHEUS_TEXT = MediaType.parseMediaType("text/plain;version=0.0.4;charset=utf-8");
+
+    private final RequestMetrics requestMetrics;
+    private final NoteCache noteCache;
+    private final ObjectProvider<LogPipeline> logPipeline;
+    private final ObjectProvider<SegmentLogService> segmentLogService;
+
+    @Autowired
+    public MetricsController(
+            RequestMetrics requestMetrics,
+            NoteCache noteCache,
+            ObjectProvider<LogPipeline> logPipeline,
+            ObjectProvider<SegmentLogService> segmentLogService
+    ) {
+        this.requestMetrics = requestMetrics;
+        this.noteCache = noteCache;
+        this.logPipeline = logPipeline;
+        this.segmentLogService = segmentLogService;
+    }
+
+    /**
+     * Writes the metrics, with the counters of whichever log store {@code app.log-store.type} selects.
+     */
+    @Operation(summary = "Scrape the request latencies, note cache and log store statistics")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Found the metrics")
+    })
+    @GetMapping("/metrics")
+    public ResponseEntity<String> metrics() {
+        val out = new StringBuilder(8192);
+        this.requestMetrics.writeTo(out);
+
+        val cache = this.noteCache.stats();
+        metric(out, "note_cache_hits_total", "counter", "Reads served from the note cache.", cache.hits());
+        metric(out, "note_cache_misses_total", "counter", "Reads of the note cache that went to the database.", cache.misses());
+        metric(out, "note_cache_evictions_total", "counter", "Notes evicted from the note cache.", cache.evictions());
+        metric(out, "note_cache_size", "gauge", "Approximate number of cached notes.", cache.size());
+
+        this.logPipeline.ifAvailable(logPipeline -> {
+            LogPipeline.Stats pipeline = logPipeline.stats();
+            metric(out, "log_pipeline_enqueued_total", "counter", "Log entries accepted by the log pipeline.", pipeline.enqueued());
+            metric(out, "log_pipeline_written_total", "counter", "Log entries written to the log store.", pipeline.written());
+            metric(out, "log_pipeline_dropped_total", "counter", "Log entries dropped by the log pipeline.", pipeline.dropped());
+            metric(out, "log_pipeline_queued", "gauge", "Log entries waiting to be written.", pipeline.queued());
+        });
+        this.segmentLogService.ifAvailable(segmentLogService -> {
+            SegmentLogService.Stats store = segmentLogService.stats();
+            metric(out, "log_store_written_total", "counter", "Log records appended to the segment log store.", store.written());
+            metric(out, "log_store_dropped_total", "counter", "Log records dropped by the segment log store.", store.dropped());
+            metric(out, "log_store_segments", "gauge", "Segment files of the segment log store.", store.segments());
+        });
+
+        return ResponseEntity.ok()
+                .contentType(PROMETHEUS_TEXT)
+                .body(out.toString());
+    }
+
+    private static void metric(StringBuilder out, String name, String type, String help, long value) {
+        out.append(STR."# HELP \{name} \{help}\n");
+        out.append(STR."# TYPE \{name} \{type}\n");
+        out.append(STR."\{name} \{value}\n");
+    }
+}
@@ -1,24 +1,51 @@
 package com.ota.api.note.controllers;
 
+import com.ota.api.note.Config;
+import com.ota.api.note.errors.SimpleError;
 import com.ota.api.note.models.dto.ApiErrorDTO;
+import com.ota.api.note.models.dto.BulkItemDTO;
+import com.ota.api.note.models.dto.BulkResultDTO;
+import com.ota.api.note.models.dto.ExportParamsDTO;
+import com.ota.api.note.models.dto.ImportResultDTO;
 import com.ota.api.note.models.dto.NoteDTO;
 import com.ota.api.note.models.dto.PaginateParamsDTO;
 import com.ota.api.note.models.dto.PaginatedDTO;
 import com.ota.api.note.models.form.NoteForm;
+import com.ota.api.note.models.form.NoteUpdateForm;
+import com.ota.api.note.services.NoteImportService;
 import com.ota.api.note.services.NoteService;
+import com.ota.api.note.spring.ETags;
 import com.ota.api.note.spring.Response;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Controller for managing notes.
@@ -35,26 +62,53 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 @RequestMapping("/api/notes")
 public class NoteController {
+    private static final String MISSING_ITEM = "Item is required";
+
     private final NoteService noteService;
+    private final NoteImportService noteImportService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final Config config;
 
     @Autowired
-    public NoteController(NoteService noteService) {
+    public NoteController(
+            NoteService noteService,
+            NoteImportService noteImportService,
+            Validator validator,
+            ObjectMapper objectMapper,
+            Config config
+    ) {
         this.noteService = noteService;
+        this.noteImportService = noteImportService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.config = config;
     }
 
     @Operation(summary = "Get a Note by its id")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Found the note"),
+            @ApiResponse(responseCode = "304", description = "The note matches the If-None-Match ETag"),
             @ApiResponse(responseCode = "400", description = "Invalid id supplied", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) }),
             @ApiResponse(responseCode = "404", description = "Note not found", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) }),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) })
     })
     @GetMapping("/{id}")
-    public ResponseEntity<NoteDTO> findById(@PathVariable Long id) {
+    public ResponseEntity<NoteDTO> findById(@PathVariable Long id, WebRequest request) {
+        // answer a conditional request from the version alone, without loading the note
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            val eTag = this.noteService.findVersion(id)
+                    .map(version -> ETags.forNote(id, version));
+            if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+                return null;
+            }
+        }
+
         val note = this.noteService.findOne(id);
 
         return Response.<NoteDTO>builder()
                 .status(HttpStatus.OK)
+                .headers(eTagHeaders(ETags.forNote(note)))
                 .body(note)
                 .build();
     }
@@ -62,19 +116,77 @@ public class NoteController {
     @Operation(summary = "Retrieve the notes in paginated format")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Found the notes"),
+            @ApiResponse(responseCode = "304", description = "The page matches the If-None-Match ETag"),
             @ApiResponse(responseCode = "400", description = "Request param violation"),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) })
     })
     @GetMapping("/")
-    public ResponseEntity<PaginatedDTO<NoteDTO>> findAll(PaginateParamsDTO paginateParams) {
+    public ResponseEntity<PaginatedDTO<NoteDTO>> findAll(PaginateParamsDTO paginateParams, WebRequest request) {
         val notePage = this.noteService.findAll(paginateParams);
 
+        // the fingerprint only needs the ids and modification dates, skip serializing an unchanged page
+        val eTag = ETags.forPage(paginateParams, notePage);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+
         return Response.<PaginatedDTO<NoteDTO>>builder()
                 .status(HttpStatus.OK)
+                .headers(eTagHeaders(eTag))
                 .body(notePage)
                 .build();
     }
 
+    @Operation(summary = "Stream every note as newline-delimited JSON, optionally filtered by a query and a modification date range")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Streaming the notes", content = { @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = NoteDTO.class)) }),
+            @ApiResponse(responseCode = "400", description = "Request param violation", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) }),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) })
+    })
+    @GetMapping("/_export")
+    public void export(ExportParamsDTO exportParams, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        val writer = this.objectMapper.writerFor(NoteDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        val flushEvery = this.config.export().flushEvery();
+        val exported = new long[1];
+
+        // not closed on failure, so an error raised before the first flush can still be sent as JSON
+        val generator = this.objectMapper.getFactory().createGenerator(response.getOutputStream());
+        generator.setRootValueSeparator(null);
+        this.noteService.exportAll(exportParams, note -> {
+            try {
+                writer.writeValue(generator, note);
+                generator.writeRaw('\n');
+                if (++exported[0] % flushEvery == 0) {
+                    generator.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.close();
+    }
+
+    @Operation(summary = "Import notes from a newline-delimited JSON stream or a JSON array, ignores the ids")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Imported the notes, see the summary for the rejected records"),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) })
+    })
+    @PostMapping(value = "/_import", consumes = { "application/x-ndjson", "application/json" })
+    public ResponseEntity<ImportResultDTO> importAll(HttpServletRequest request) throws IOException {
+        // read straight from the request stream, the body is never held in memory as a whole
+        val result = this.noteImportService.importAll(request.getInputStream());
+
+        return Response.<ImportResultDTO>builder()
+                .status(HttpStatus.OK)
+                .body(result)
+                .build();
+    }
+
     @Operation(summary = "Create a new note, ignores the id")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Successfully created the note"),
@@ -100,18 +212,27 @@ public class NoteController {
             @ApiResponse(responseCode = "200", description = "Successfully updated the note"),
             @ApiResponse(responseCode = "400", description = "Invalid request body", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) }),
             @ApiResponse(responseCode = "404", description = "Note not found", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) }),
+            @ApiResponse(responseCode = "412", description = "The note doesn't match the If-Match ETag", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) }),
             @ApiResponse(responseCode = "500", description = "Internal server error", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) })
     })
     @PutMapping("/{id}")
-    public ResponseEntity<NoteDTO> update(@PathVariable Long id, @Valid @RequestBody NoteForm noteForm) {
+    public ResponseEntity<NoteDTO> update(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody NoteForm noteForm
+    ) {
+        // with If-Match the note is only updated if it is still at the version the client has read
         val note = NoteDTO.builder()
                 .id(id)
                 .title(noteForm.getTitle())
                 .body(noteForm.getBody())
+                .version(ifMatch == null ? null : ETags.parseIfMatch(ifMatch, id))
                 .build();
+        val updated = this.noteService.update(note);
 
         return Response.<NoteDTO>builder()
-                .body(this.noteService.update(note))
+                .body(updated)
+                .headers(eTagHeaders(ETags.forNote(updated)))
                 .status(HttpStatus.OK)
                 .build();
     }
@@ -131,4 +252,176 @@ public class NoteController {
                 .status(HttpStatus.NO_CONTENT)
                 .buildV();
     }
+
+    @Operation(summary = "Create many notes in a single transaction, ignores the ids")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Processed the notes, see the status of every item"),
+            @ApiResponse(responseCode = "400", description = "Too many items", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) }),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) })
+    })
+    @PostMapping("/_bulk")
+    public ResponseEntity<BulkResultDTO> createAll(@RequestBody List<NoteForm> noteForms) {
+        checkBulkSize(noteForms.size());
+
+        val items = new BulkItemDTO[noteForms.size()];
+        val indexes = new ArrayList<Integer>();
+        val notes = new ArrayList<NoteDTO>();
+        for (int i = 0; i < noteForms.size(); i++) {
+            val noteForm = noteForms.get(i);
+            val errors = validate(noteForm);
+            if (!errors.isEmpty()) {
+                items[i] = failure(i, null, HttpStatus.BAD_REQUEST, errors);
+                continue;
+            }
+
+            indexes.add(i);
+            notes.add(NoteDTO.builder()
+                    .title(noteForm.getTitle())
+                    .body(noteForm.getBody())
+                    .build());
+        }
+
+        val created = notes.isEmpty() ? List.<NoteDTO>of() : this.noteService.createAll(notes);
+        for (int i = 0; i < created.size(); i++) {
+            val note = created.get(i);
+            items[indexes.get(i)] = success(indexes.get(i), note.getId(), HttpStatus.CREATED, note);
+        }
+
+        return bulkResponse(items);
+    }
+
+    @Operation(summary = "Update many notes in a single transaction")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Processed the notes, see the status of every item"),
+            @ApiResponse(responseCode = "400", description = "Too many items", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) }),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) })
+    })
+    @PutMapping("/_bulk")
+    public ResponseEntity<BulkResultDTO> updateAll(@RequestBody List<NoteUpdateForm> noteForms) {
+        checkBulkSize(noteForms.size());
+
+        val items = new BulkItemDTO[noteForms.size()];
+        val notes = new ArrayList<NoteDTO>();
+        for (int i = 0; i < noteForms.size(); i++) {
+            val noteForm = noteForms.get(i);
+            val errors = validate(noteForm);
+            if (!errors.isEmpty()) {
+                items[i] = failure(i, noteForm == null ? null : noteForm.getId(), HttpStatus.BAD_REQUEST, errors);
+                continue;
+            }
+
+            notes.add(NoteDTO.builder()
+                    .id(noteForm.getId())
+                    .title(noteForm.getTitle())
+                    .body(noteForm.getBody())
+                    .build());
+        }
+
+        val updated = notes.isEmpty() ? Map.<Long, NoteDTO>of() : this.noteService.updateAll(notes);
+        for (int i = 0; i < noteForms.size(); i++) {
+            if (items[i] != null) {
+                continue;
+            }
+
+            val id = noteForms.get(i).getId();
+            val note = updated.get(id);
+            items[i] = note != null
+                    ? success(i, id, HttpStatus.OK, note)
+                    : failure(i, id, HttpStatus.NOT_FOUND, List.of("Note not found"));
+        }
+
+        return bulkResponse(items);
+    }
+
+    @Operation(summary = "Delete many notes by their ids in a single statement")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Processed the ids, see the status of every item"),
+            @ApiResponse(responseCode = "400", description = "Too many items", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) }),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = { @Content(mediaType = "application/json", schema = @Schema(implementation = ApiErrorDTO.class)) })
+    })
+    @DeleteMapping("/_bulk")
+    public ResponseEntity<BulkResultDTO> deleteAll(@RequestBody List<Long> ids) {
+        checkBulkSize(ids.size());
+
+        val existing = ids.stream()
+                .filter(Objects::nonNull)
+                .toList();
+        val deleted = existing.isEmpty() ? Set.<Long>of() : this.noteService.deleteAll(existing);
+        val items = new BulkItemDTO[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            val id = ids.get(i);
+            if (id == null) {
+                items[i] = failure(i, null, HttpStatus.BAD_REQUEST, List.of(MISSING_ITEM));
+                continue;
+            }
+
+            items[i] = deleted.contains(id)
+                    ? success(i, id, HttpStatus.NO_CONTENT, null)
+                    : failure(i, id, HttpStatus.NOT_FOUND, List.of("Note not found"));
+        }
+
+        return bulkResponse(items);
+    }
+
+    private void checkBulkSize(int size) {
+        val maxItems = this.config.bulk().maxItems();
+        if (size > maxItems) {
+            throw new SimpleError(STR."A bulk request accepts at most \{maxItems} items.");
+        }
+    }
+
+    /**
+     * Validates a bulk item, a null element of the array is reported like any other invalid item.
+     */
+    private List<String> validate(Object form) {
+        if (form == null) {
+            return List.of(MISSING_ITEM);
+        }
+
+        return this.validator.validate(form).stream()
+                .map(ConstraintViolation::getMessage)
+                .toList();
+    }
+
+    private static BulkItemDTO success(int index, Long id, HttpStatus status, NoteDTO note) {
+        return BulkItemDTO.builder()
+                .index(index)
+                .id(id)
+                .status(status.value())
+                .note(note)
+                .build();
+    }
+
+    private static BulkItemDTO failure(int index, Long id, HttpStatus status, List<String> errors) {
+        return BulkItemDTO.builder()
+                .index(index)
+                .id(id)
+                .status(status.value())
+                .errors(errors)
+                .build();
+    }
+
+    private static ResponseEntity<BulkResultDTO> bulkResponse(BulkItemDTO[] items) {
+        val succeeded = (int) Arrays.stream(items)
+                .filter(item -> item.getErrors() == null)
+                .count();
+        val result = BulkResultDTO.builder()
+                .items(List.of(items))
+                .succeeded(succeeded)
+                .failed(items.length - succeeded)
+                .build();
+
+        return Response.<BulkResultDTO>builder()
+                .status(HttpStatus.OK)
+                .body(result)
+                .build();
+    }
+
+    private static HttpHeaders eTagHeaders(String eTag) {
+        val headers = new HttpHeaders();
+        if (eTag != null) {
+            headers.setETag(eTag);
+        }
+        return headers;
+    }
 }
@@ -0,0 +1,92 @@
+package com.ota.api.note.controllers;
+
+import com.ota.api.note.errors.NotFoundError;
+import com.ota.api.note.services.LogPipeline;
+import com.ota.api.note.services.NoteCache;
+import com.ota.api.note.services.SegmentLogService;
+import com.ota.api.note.spring.Response;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.val;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller exposing the runtime statistics of the in-process components.
+ * Only the log store selected by {@code app.log-store.type} has statistics, the other one answers 404.
+ * <p>
+ * @author Miko Chu
+ * @since 2024-05-07
+ */
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+    private final NoteCache noteCache;
+    private final ObjectProvider<LogPipeline> logPipeline;
+    private final ObjectProvider<SegmentLogService> segmentLogService;
+
+    @Autowired
+    public StatsController(
+            NoteCache noteCache,
+            ObjectProvider<LogPipeline> logPipeline,
+            ObjectProvider<SegmentLogService> segmentLogService
+    ) {
+        this.noteCache = noteCache;
+        this.logPipeline = logPipeline;
+        this.segmentLogService = segmentLogService;
+    }
+
+    @Operation(summary = "Get the hit, miss and eviction statistics of the note cache")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Found the statistics")
+    })
+    @GetMapping("/note-cache")
+    public ResponseEntity<NoteCache.Stats> noteCache() {
+        return Response.<NoteCache.Stats>builder()
+                .status(HttpStatus.OK)
+                .body(this.noteCache.stats())
+                .build();
+    }
+
+    @Operation(summary = "Get the enqueued, written and dropped counters of the request-log pipeline")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Found the statistics"),
+            @ApiResponse(responseCode = "404", description = "The logs go to the segment log store")
+    })
+    @GetMapping("/log-pipeline")
+    public ResponseEntity<LogPipeline.Stats> logPipeline() {
+        val pipeline = this.logPipeline.getIfAvailable();
+        if (pipeline == null) {
+            throw new NotFoundError("The log pipeline is disabled, see /api/stats/log-store.");
+        }
+
+        return Response.<LogPipeline.Stats>builder()
+                .status(HttpStatus.OK)
+                .body(pipeline.stats())
+                .build();
+    }
+
+    @Operation(summary = "Get the written and dropped counters of the segment log store")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Found the statistics"),
+            @ApiResponse(responseCode = "404", description = "The logs go to the database")
+    })
+    @GetMapping("/log-store")
+    public ResponseEntity<SegmentLogService.Stats> logStore() {
+        val segmentLogService = this.segmentLogService.getIfAvailable();
+        if (segmentLogService == null) {
+            throw new NotFoundError("The segment log store is disabled, see /api/stats/log-pipeline.");
+        }
+
+        return Response.<SegmentLogService.Stats>builder()
+                .status(HttpStatus.OK)
+                .body(segmentLogService.stats())
+                .build();
+    }
+}
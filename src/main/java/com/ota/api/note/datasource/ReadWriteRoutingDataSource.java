@@ -0,0 +1,208 @@
+package com.ota.api.note.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the read-only transactions to the read replicas and everything else to the primary.
+ * <p>
+ * The route is decided when the connection is acquired, so the data source must be wrapped in a
+ * {@link LazyConnectionDataSourceProxy}, which defers that to the first statement, once the
+ * transaction is known to be read-only. A replica is picked round-robin or by the fewest connections
+ * in use, among the healthy ones. A replica failing to hand out a connection is taken out of the
+ * rotation until the health check sees it back, and the read goes to the primary meanwhile. A client
+ * that ran a read-write transaction within the {@link ReadYourWrites} window reads from the primary, and so do
+ * the read-only transactions named {@value #PRIMARY_READ}.
+ * Only the requests carrying the {@value #CLIENT_ID_HEADER} header are tracked: an address can be shared
+ * by many clients behind a proxy or NAT, so the requests without the header always read from the replicas
+ * and can miss their own recent writes.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    public static final String PRIMARY = "primary";
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    /**
+     * The name of the read-only transactions that always read from the primary, for the reads that must not be stale.
+     */
+    public static final String PRIMARY_READ = "primary-read";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final boolean leastLoaded;
+    private final ReadYourWrites readYourWrites;
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService healthChecker;
+
+    /**
+     * Constructs a {@link ReadWriteRoutingDataSource}.
+     *
+     * @param primary        The primary, which takes the writes and the reads no replica can serve.
+     * @param replicas       The read replicas, may be empty.
+     * @param strategy       "round-robin" or "least-loaded".
+     * @param readYourWrites The clients whose reads stay on the primary.
+     * @throws IllegalArgumentException If the strategy is unknown.
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, List<Replica> replicas, String strategy, ReadYourWrites readYourWrites) {
+        if (!strategy.equals("round-robin") && !strategy.equals("least-loaded")) {
+            throw new IllegalArgumentException(STR."Routing strategy '\{strategy}' is not supported.");
+        }
+
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.leastLoaded = strategy.equals("least-loaded");
+        this.readYourWrites = readYourWrites;
+
+        val targets = new HashMap<Object, Object>();
+        targets.put(PRIMARY, primary);
+        for (val replica : this.replicas) {
+            targets.put(replica.name(), replica.dataSource());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        val replica = route();
+        return replica == null ? PRIMARY : replica.name();
+    }
+
+    /**
+     * Acquires a connection of the routed data source, falling back to the primary if the replica fails.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        val replica = route();
+        if (replica == null) {
+            return this.primary.getConnection();
+        }
+
+        try {
+            return replica.dataSource().getConnection();
+        } catch (SQLException e) {
+            replica.markDown(e);
+            return this.primary.getConnection();
+        }
+    }
+
+    /**
+     * Picks the replica of the current transaction.
+     *
+     * @return The replica, or null to use the primary.
+     */
+    Replica route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                this.readYourWrites.wrote(clientKey());
+            }
+            return null;
+        }
+        if (this.replicas.isEmpty()
+                || PRIMARY_READ.equals(TransactionSynchronizationManager.getCurrentTransactionName())
+                || this.readYourWrites.isSticky(clientKey())) {
+            return null;
+        }
+
+        val size = this.replicas.size();
+        val start = Math.floorMod(this.next.getAndIncrement(), size);
+        Replica selected = null;
+        int selectedLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            val replica = this.replicas.get((start + i) % size);
+            if (!replica.isHealthy()) {
+                continue;
+            }
+            if (!this.leastLoaded) {
+                return replica;
+            }
+
+            // ties go to the first one from the round-robin position, so idle replicas share the reads
+            val load = replica.load();
+            if (load < selectedLoad) {
+                selected = replica;
+                selectedLoad = load;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * @return The {@value #CLIENT_ID_HEADER} of the current request, or null without the header or outside a request.
+     */
+    static String clientKey() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return null;
+        }
+
+        val clientId = attributes.getRequest().getHeader(CLIENT_ID_HEADER);
+        return clientId != null && !clientId.isBlank() ? clientId : null;
+    }
+
+    /**
+     * Checks the health of the replicas at a fixed interval on a daemon thread.
+     *
+     * @param interval The time between two checks.
+     * @param timeout  The time to wait for a replica to validate a connection.
+     */
+    public void startHealthChecks(Duration interval, Duration timeout) {
+        if (this.replicas.isEmpty()) {
+            return;
+        }
+
+        val timeoutSeconds = (int) Math.max(1, timeout.toSeconds());
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("replica-health").factory());
+        this.healthChecker.scheduleWithFixedDelay(
+                () -> checkReplicas(timeoutSeconds), interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void checkReplicas(int timeoutSeconds) {
+        for (val replica : this.replicas) {
+            replica.check(timeoutSeconds);
+        }
+    }
+
+    public List<Replica> replicas() {
+        return this.replicas;
+    }
+
+    /**
+     * Stops the health checks and closes the replicas, the primary is closed by its owner.
+     */
+    @Override
+    public void close() {
+        if (this.healthChecker != null) {
+            this.healthChecker.shutdownNow();
+        }
+        for (val replica : this.replicas) {
+            if (replica.dataSource() instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close replica {}", replica.name(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ota.api.note.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Remembers the clients that recently wrote, so their reads stay on the primary until the replicas
+ * have caught up and they always see their own writes. A client is forgotten once the window passes
+ * without a new write.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+public class ReadYourWrites {
+    private final Cache<String, Boolean> writers;
+
+    /**
+     * Constructs a {@link ReadYourWrites}.
+     *
+     * @param window     The time a client's reads stay on the primary after its last write, at least the replication lag.
+     * @param maxClients The maximum number of clients remembered, the least recent ones are forgotten first.
+     */
+    public ReadYourWrites(Duration window, long maxClients) {
+        this.writers = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    /**
+     * Records a write of the client.
+     *
+     * @param client The client key, ignored if null.
+     */
+    public void wrote(String client) {
+        if (client != null) {
+            this.writers.put(client, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * @param client The client key, or null outside a request.
+     * @return true if the client wrote within the window.
+     */
+    public boolean isSticky(String client) {
+        return client != null && this.writers.getIfPresent(client) != null;
+    }
+}
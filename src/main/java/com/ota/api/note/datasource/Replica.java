@@ -0,0 +1,83 @@
+package com.ota.api.note.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A read replica behind the {@link ReadWriteRoutingDataSource}, with its health as last observed
+ * by the health check or by a failed connection attempt.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+@Slf4j
+public class Replica {
+    private final String name;
+    private final DataSource dataSource;
+    private volatile boolean healthy = true;
+
+    public Replica(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public String name() {
+        return this.name;
+    }
+
+    public DataSource dataSource() {
+        return this.dataSource;
+    }
+
+    public boolean isHealthy() {
+        return this.healthy;
+    }
+
+    /**
+     * @return The number of connections in use, 0 when the pool doesn't report it or hasn't started yet.
+     */
+    public int load() {
+        if (this.dataSource instanceof HikariDataSource hikari && hikari.getHikariPoolMXBean() != null) {
+            return hikari.getHikariPoolMXBean().getActiveConnections();
+        }
+        return 0;
+    }
+
+    /**
+     * Takes the replica out of the rotation until the next health check succeeds.
+     */
+    public void markDown(Exception cause) {
+        if (this.healthy) {
+            log.warn("Replica {} is down, reads fall back to the primary: {}", this.name, cause.getMessage());
+        }
+        this.healthy = false;
+    }
+
+    /**
+     * Checks that the replica hands out a valid connection, and updates its health.
+     *
+     * @param timeoutSeconds The time to wait for the validation query.
+     */
+    public void check(int timeoutSeconds) {
+        try (Connection connection = this.dataSource.getConnection()) {
+            if (!connection.isValid(timeoutSeconds)) {
+                markDown(new SQLException("Connection validation timed out"));
+                return;
+            }
+        } catch (SQLException e) {
+            markDown(e);
+            return;
+        }
+
+        val wasHealthy = this.healthy;
+        this.healthy = true;
+        if (!wasHealthy) {
+            log.info("Replica {} is back up", this.name);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.ota.api.note.datasource;
+
+import com.ota.api.note.Config;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+
+/**
+ * Replaces the auto-configured data source with a {@link ReadWriteRoutingDataSource} when
+ * "app.datasource.routing.enabled" is set. The primary is still configured by "spring.datasource",
+ * the replicas by "app.datasource.routing.replicas".
+ * <p>
+ * Routing requires "spring.jpa.open-in-view=false". With an open session per request, Hibernate holds the
+ * connection of the first transaction until the request ends, so a write following a read of the same
+ * request would run on the read-only replica connection.
+ *
+ * @see Config.Datasource.Routing
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(
+            HikariDataSource primaryDataSource,
+            Config config,
+            @Value("${spring.jpa.open-in-view:true}") boolean openInView
+    ) {
+        if (openInView) {
+            throw new IllegalStateException("app.datasource.routing.enabled requires spring.jpa.open-in-view=false.");
+        }
+
+        val settings = config.datasource().routing();
+
+        val replicas = new ArrayList<Replica>();
+        for (val replica : settings.replicas()) {
+            val name = STR."replica-\{replicas.size() + 1}";
+            val dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.url())
+                    .username(replica.username())
+                    .password(replica.password())
+                    .build();
+            dataSource.setPoolName(name);
+            dataSource.setMaximumPoolSize(replica.maximumPoolSize());
+            dataSource.setReadOnly(true);
+            replicas.add(new Replica(name, dataSource));
+        }
+
+        val routingDataSource = new ReadWriteRoutingDataSource(
+                primaryDataSource,
+                replicas,
+                settings.strategy(),
+                new ReadYourWrites(settings.stickiness(), settings.maxStickyClients())
+        );
+        routingDataSource.startHealthChecks(settings.healthCheckInterval(), settings.healthCheckTimeout());
+        return routingDataSource;
+    }
+
+    /**
+     * The data source used by JPA, which acquires the connection on the first statement so the
+     * routing sees whether the transaction is read-only.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
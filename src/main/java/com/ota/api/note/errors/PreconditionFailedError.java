@@ -0,0 +1,19 @@
+package com.ota.api.note.errors;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom error class designed to abstract away the complexity of Spring Framework errors
+ * and provide user-friendly error messages when a conditional request doesn't match the current state of a resource.
+ * This class extends RuntimeException and sets the HTTP status code to PRECONDITION_FAILED.
+ *
+ * @author Miko Chu
+ * @since 2024-05-15
+ */
+@ResponseStatus(code = HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedError extends RuntimeException {
+    public PreconditionFailedError(String message) {
+        super(message);
+    }
+}
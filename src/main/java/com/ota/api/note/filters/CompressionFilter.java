@@ -0,0 +1,148 @@
+package com.ota.api.note.filters;
+
+import com.ota.api.note.Config;
+import com.ota.api.note.spring.DeflaterPool;
+import com.ota.api.note.spring.ETags;
+import com.ota.api.note.spring.GzipHttpServletResponse;
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Filter that gzips the responses of the clients sending {@code Accept-Encoding: gzip}.
+ * <p>
+ * It runs before {@link HttpLoggerFilter}, so the logger captures the body as the application
+ * wrote it while the client receives the compressed bytes. Bodies under the minimum size and
+ * content types outside the compressible list go out as is. Only gzip is offered: the codec is
+ * built into the JDK and every HTTP client supports it.
+ *
+ * @see GzipHttpServletResponse
+ * @see Config.Compression
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+@Order(1)
+@Component
+public class CompressionFilter extends OncePerRequestFilter {
+    private final Config.Compression settings;
+    private final DeflaterPool deflaterPool;
+    private final Set<String> mimeTypes;
+
+    @Autowired
+    public CompressionFilter(Config config) {
+        this.settings = config.compression();
+        this.deflaterPool = new DeflaterPool(this.settings.level(), this.settings.poolSize());
+        this.mimeTypes = Set.copyOf(this.settings.mimeTypes().stream()
+                .map(mimeType -> mimeType.trim().toLowerCase(Locale.ROOT))
+                .toList());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @Nonnull HttpServletRequest request,
+            @Nonnull HttpServletResponse response,
+            @Nonnull FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (!this.settings.enabled() || "HEAD".equals(request.getMethod()) || !acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        val gzipResponse = new GzipHttpServletResponse(response, this.deflaterPool, (int) this.settings.minSize().toBytes(), this.mimeTypes);
+        try {
+            val identityRequest = withIdentityETags(request);
+            filterChain.doFilter(identityRequest, gzipResponse);
+
+            // a 304 has no body to compress, but it must carry the tag of the representation the client holds
+            val eTag = gzipResponse.getHeader(HttpHeaders.ETAG);
+            if (identityRequest != request && gzipResponse.getStatus() == HttpServletResponse.SC_NOT_MODIFIED && eTag != null) {
+                gzipResponse.setHeader(HttpHeaders.ETAG, ETags.toGzip(eTag));
+            }
+            gzipResponse.finish();
+        } finally {
+            gzipResponse.release();
+        }
+    }
+
+    /**
+     * Checks an Accept-Encoding header for gzip, or a wildcard, with a non-zero quality.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        for (val coding : acceptEncoding.split(",")) {
+            val parts = coding.split(";");
+            val name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals("gzip") && !name.equals("x-gzip") && !name.equals("*")) {
+                continue;
+            }
+
+            var quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                val parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (quality > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Strips the gzip suffix from the conditional headers, so the controllers compare them with the tags they know.
+     */
+    private static HttpServletRequest withIdentityETags(HttpServletRequest request) {
+        val ifMatch = request.getHeader(HttpHeaders.IF_MATCH);
+        val ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if ((ifMatch == null || !ifMatch.contains(ETags.GZIP_SUFFIX)) && (ifNoneMatch == null || !ifNoneMatch.contains(ETags.GZIP_SUFFIX))) {
+            return request;
+        }
+
+        return new HttpServletRequestWrapper(request) {
+            @Override
+            public String getHeader(String name) {
+                String value = super.getHeader(name);
+                return value != null && isConditional(name) ? ETags.fromGzip(value) : value;
+            }
+
+            @Override
+            public Enumeration<String> getHeaders(String name) {
+                if (!isConditional(name)) {
+                    return super.getHeaders(name);
+                }
+                return Collections.enumeration(Collections.list(super.getHeaders(name)).stream()
+                        .map(ETags::fromGzip)
+                        .toList());
+            }
+
+            private boolean isConditional(String name) {
+                return HttpHeaders.IF_MATCH.equalsIgnoreCase(name) || HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name);
+            }
+        };
+    }
+}
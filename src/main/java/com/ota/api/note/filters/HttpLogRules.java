@@ -0,0 +1,95 @@
+package com.ota.api.note.filters;
+
+import com.ota.api.note.Config;
+import lombok.val;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The logging rules of {@link HttpLoggerFilter}, with their path patterns parsed once at startup.
+ * Matching a request parses its path once and walks the rules in order, no regular expression is involved.
+ * The sample rate and body capture a rule leaves out are taken from the defaults, so a matched rule has both.
+ *
+ * @see Config.HttpLogger
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+public final class HttpLogRules {
+    private final List<CompiledRule> rules;
+    private final Config.HttpLogger.Rule defaultRule;
+
+    private record CompiledRule(List<PathPattern> patterns, String method, Config.HttpLogger.Rule rule) {
+        boolean matches(String method, PathContainer path) {
+            if (this.method != null && !this.method.equalsIgnoreCase(method)) {
+                return false;
+            }
+            if (this.patterns.isEmpty()) {
+                return true;
+            }
+            for (val pattern : this.patterns) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public HttpLogRules(Config.HttpLogger settings) {
+        this.defaultRule = new Config.HttpLogger.Rule(List.of(), null, settings.sampleRate(), settings.captureBody(), false);
+        this.rules = new ArrayList<>(settings.rules().size());
+        for (val rule : settings.rules()) {
+            val patterns = rule.paths() == null ? List.<PathPattern>of() : rule.paths().stream()
+                    .map(PathPatternParser.defaultInstance::parse)
+                    .toList();
+            this.rules.add(new CompiledRule(patterns, rule.method(), withDefaults(rule, settings)));
+        }
+    }
+
+    private static Config.HttpLogger.Rule withDefaults(Config.HttpLogger.Rule rule, Config.HttpLogger settings) {
+        return new Config.HttpLogger.Rule(
+                rule.paths(),
+                rule.method(),
+                rule.sampleRate() != null ? rule.sampleRate() : settings.sampleRate(),
+                rule.captureBody() != null ? rule.captureBody() : settings.captureBody(),
+                rule.exclude()
+        );
+    }
+
+    /**
+     * Finds the rule of a request.
+     *
+     * @param method The HTTP method of the request.
+     * @param path   The request URI.
+     * @return The first matching rule, or the default one, with its sample rate and body capture set.
+     */
+    public Config.HttpLogger.Rule match(String method, String path) {
+        if (this.rules.isEmpty()) {
+            return this.defaultRule;
+        }
+
+        val pathContainer = PathContainer.parsePath(path);
+        for (val rule : this.rules) {
+            if (rule.matches(method, pathContainer)) {
+                return rule.rule();
+            }
+        }
+        return this.defaultRule;
+    }
+
+    /**
+     * Rolls the dice for a request of the given rule.
+     *
+     * @return true if the request is sampled.
+     */
+    public static boolean sample(Config.HttpLogger.Rule rule) {
+        double sampleRate = rule.sampleRate();
+        return sampleRate >= 1.0 || (sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+}
@@ -1,10 +1,13 @@
 package com.ota.api.note.filters;
 
 import com.ota.api.note.Config;
+import com.ota.api.note.metrics.RequestTimings;
 import com.ota.api.note.models.dto.LogDTO;
+import com.ota.api.note.models.entity.Log;
 import com.ota.api.note.services.LogService;
 import com.ota.api.note.spring.CachedBodyHttpServletRequest;
 import com.ota.api.note.spring.CachedBodyHttpServletResponse;
+import com.ota.api.note.spring.CaptureBufferPool;
 import jakarta.annotation.Nonnull;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -20,39 +23,60 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.time.Instant;
 
-import static com.ota.api.note.utils.JSONUtils.stringify;
+import static com.ota.api.note.utils.LogRecordEncoder.encode;
 
 /**
  * Filter that logs and caches the HTTP request and response.
  * This filter wraps the request and response to cache their bodies, then logs the details.
  * The logged details include request and response information such as method, path, status, etc.
  * <p>
- * This filter is applied to all URL patterns.
+ * This filter is applied to all URL patterns. How a request is logged is decided by the first
+ * matching {@link HttpLogRules rule}: excluded, sampled at a rate, with or without the bodies.
+ * An unsampled request isn't wrapped at all, and is logged without its bodies only when its
+ * status isn't 2xx or it's slower than the threshold.
  *
+ * @see HttpLogRules
  * @see CachedBodyHttpServletRequest
  * @see CachedBodyHttpServletResponse
+ * @see CaptureBufferPool
  * @see LogDTO
  * @see Config
  *
  * @author Miko Chu
  * @since 2024-04-27
  */
-@Order(1)
+@Order(2)
 @Component
 @WebFilter(filterName = "ContentCachingFilter", urlPatterns = "/*")
 public class HttpLoggerFilter extends OncePerRequestFilter {
     private final Config config;
     private final LogService logService;
+    private final CaptureBufferPool bufferPool;
+    private final HttpLogRules rules;
+    private final long slowThresholdNanos;
 
     /**
      * Constructs an instance of {@link HttpLoggerFilter} with the specified {@link Config}.
      *
      * @param config The environment configuration.
+     * @throws IllegalStateException If the maximum body size exceeds the log body columns.
      */
     @Autowired
     public HttpLoggerFilter(Config config, LogService logService) {
+        if (config.httpLogger().maxBodySize().toBytes() > Log.MAX_BODY_LENGTH) {
+            // a longer body would fail the whole log batch it's written with
+            throw new IllegalStateException(
+                    STR."app.http-logger.max-body-size must be at most \{Log.MAX_BODY_LENGTH} bytes, the length of the log body columns.");
+        }
+
         this.config = config;
         this.logService = logService;
+        this.bufferPool = new CaptureBufferPool(
+                (int) config.httpLogger().maxBodySize().toBytes(),
+                config.httpLogger().bufferPoolSize()
+        );
+        this.rules = new HttpLogRules(config.httpLogger());
+        this.slowThresholdNanos = config.httpLogger().slowThreshold().toNanos();
     }
 
     /**
@@ -71,36 +95,75 @@ public class HttpLoggerFilter extends OncePerRequestFilter {
             @Nonnull HttpServletResponse httpServletResponse,
             @Nonnull FilterChain filterChain
     ) throws ServletException, IOException {
-        String excludePattern = "/swagger-ui|/v3/api-docs";
-        if (httpServletRequest.getRequestURI().matches(STR.".*(\{excludePattern}).*")) {
+        val rule = this.rules.match(httpServletRequest.getMethod(), httpServletRequest.getRequestURI());
+        if (rule.exclude()) {
+            filterChain.doFilter(httpServletRequest, httpServletResponse);
+            return;
+        }
+
+        // an unsampled request runs unwrapped, and is only logged if it turns out to be an error or slow
+        if (!HttpLogRules.sample(rule)) {
+            val start = System.nanoTime();
+            filterChain.doFilter(httpServletRequest, httpServletResponse);
+            val status = httpServletResponse.getStatus();
+            if (status < 200 || status >= 300 || System.nanoTime() - start >= this.slowThresholdNanos) {
+                log(httpServletRequest, status, null, null);
+            }
+            return;
+        }
+
+        if (!rule.captureBody()) {
             filterChain.doFilter(httpServletRequest, httpServletResponse);
+            log(httpServletRequest, httpServletResponse.getStatus(), null, null);
             return;
         }
 
         // InputStream & OutputStream can only be read once as such we have to wrap them
-        val cachedRequest = new CachedBodyHttpServletRequest(httpServletRequest);
-        val cachedResponse = new CachedBodyHttpServletResponse(httpServletResponse);
+        val requestCapture = this.bufferPool.acquire();
+        val responseCapture = this.bufferPool.acquire();
+        try {
+            val cachedRequest = new CachedBodyHttpServletRequest(httpServletRequest, requestCapture);
+            val cachedResponse = new CachedBodyHttpServletResponse(httpServletResponse, responseCapture);
 
-        // Make sure the downstream pipes are also using the wrapped IO
-        filterChain.doFilter(cachedRequest, cachedResponse);
+            // Make sure the downstream pipes are also using the wrapped IO
+            filterChain.doFilter(cachedRequest, cachedResponse);
 
-        cachedResponse.flushBuffer();
+            cachedResponse.flushBuffer();
 
-        // Log the request in console + db
-        val tracingId = cachedRequest.getAttribute(config.tracingIdKey()).toString();
+            log(cachedRequest, cachedResponse.getStatus(), cachedRequest.getBody(), cachedResponse.getBody());
+        } finally {
+            // the bodies are decoded into the log by now, so the buffers can serve the next request
+            this.bufferPool.release(requestCapture);
+            this.bufferPool.release(responseCapture);
+        }
+    }
+
+    /**
+     * Logs the request in console + db.
+     */
+    private void log(HttpServletRequest request, int status, String requestBody, String responseBody) {
+        val start = System.nanoTime();
+        val tracingId = request.getAttribute(config.tracingIdKey()).toString();
         val logDTO = LogDTO.builder()
                 .tracingId(tracingId)
-                .ipAddress(cachedRequest.getRemoteAddr())
-                .method(cachedRequest.getMethod())
-                .path(cachedRequest.getRequestURI())
-                .requestBody(cachedRequest.getBody())
-                .status(cachedResponse.getStatus())
-                .responseBody(cachedResponse.getBody())
+                .ipAddress(request.getRemoteAddr())
+                .method(request.getMethod())
+                .path(request.getRequestURI())
+                .requestBody(requestBody)
+                .status(status)
+                .responseBody(responseBody)
                 .timestamp(Instant.now().toString())
                 .build();
 
         // Save the log in the db for simplicity's sake
         this.logService.write(logDTO);
-        logger.info(stringify(logDTO));
+        if (logger.isInfoEnabled()) {
+            logger.info(encode(logDTO));
+        }
+
+        val timings = RequestTimings.current();
+        if (timings != null) {
+            timings.addLogWrite(System.nanoTime() - start);
+        }
     }
 }
\ No newline at end of file
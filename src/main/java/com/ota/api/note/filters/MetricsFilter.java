@@ -0,0 +1,63 @@
+package com.ota.api.note.filters;
+
+import com.ota.api.note.metrics.RequestMetrics;
+import com.ota.api.note.metrics.RequestTimings;
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Filter that measures the latency of every request, ahead of {@link TracingFilter} and {@link HttpLoggerFilter}
+ * so their overhead is part of the measurement.
+ * <p>
+ * The request is recorded under the route template resolved by Spring MVC, e.g. {@code /api/notes/{id}},
+ * so the number of histograms doesn't grow with the ids in the paths.
+ *
+ * @see RequestMetrics
+ *
+ * @author Miko Chu
+ * @since 2024-05-14
+ */
+@Order(-1)
+@Component
+public class MetricsFilter extends OncePerRequestFilter {
+    private static final String UNMATCHED_ROUTE = "UNMATCHED";
+
+    private final RequestMetrics requestMetrics;
+
+    @Autowired
+    public MetricsFilter(RequestMetrics requestMetrics) {
+        this.requestMetrics = requestMetrics;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @Nonnull HttpServletRequest request,
+            @Nonnull HttpServletResponse response,
+            @Nonnull FilterChain chain
+    ) throws ServletException, IOException {
+        val timings = RequestTimings.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            timings.end();
+            val route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            this.requestMetrics.record(
+                    request.getMethod(),
+                    route == null ? UNMATCHED_ROUTE : route.toString(),
+                    response.getStatus(),
+                    timings
+            );
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.ota.api.note.filters;
 
 import com.ota.api.note.Config;
+import com.ota.api.note.utils.TraceIdGenerator;
 import jakarta.annotation.Nonnull;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -14,13 +15,15 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.UUID;
 
 
 /**
- * This filter class enhances logging by adding a unique tracing identifier to each incoming request.
- * The tracing identifier is generated as a UUID and added to the Mapped Diagnostic Context (MDC) of the logging framework.
- * This allows for correlating log statements across different components of the application for a single request.
+ * This filter class enhances logging by adding a tracing identifier to each incoming request.
+ * The identifier is taken from the trace id of a W3C {@code traceparent} header or from an {@code X-Request-Id}
+ * header when the caller sends one, and is otherwise generated by {@link TraceIdGenerator}.
+ * It is added to the request attributes, to the Mapped Diagnostic Context (MDC) of the logging framework
+ * and to the {@code X-Request-Id} response header.
+ * This allows for correlating log statements across different components of the application, and across services, for a single request.
  *
  * @author Miko Chu
  * @since 2024-04-27
@@ -28,6 +31,11 @@ import java.util.UUID;
 @Order(0)
 @Component
 public class TracingFilter extends OncePerRequestFilter {
+    public static final String TRACEPARENT_HEADER = "traceparent";
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    private static final int MAX_REQUEST_ID_LENGTH = 128;
+
     private final Config config;
 
     @Autowired
@@ -36,8 +44,8 @@ public class TracingFilter extends OncePerRequestFilter {
     }
 
     /**
-     * Generates a unique tracing identifier for the incoming request, adds it to the request attributes,
-     * and sets it in the MDC of the logging framework. After processing the request, clears the MDC.
+     * Resolves the tracing identifier of the incoming request, adds it to the request attributes,
+     * the response headers and the MDC of the logging framework. After processing the request, removes it from the MDC.
      *
      * @param request  HTTP servlet request
      * @param response HTTP servlet response
@@ -51,13 +59,86 @@ public class TracingFilter extends OncePerRequestFilter {
             @Nonnull HttpServletResponse response,
             FilterChain chain
     ) throws ServletException, IOException {
-        val tracingId = UUID.randomUUID().toString().toUpperCase().replace("-", "");
+        val tracingId = resolveTracingId(request);
 
         request.setAttribute(config.tracingIdKey(), tracingId);
+        response.setHeader(REQUEST_ID_HEADER, tracingId);
 
         MDC.put(config.tracingIdKey(), tracingId);
-        chain.doFilter(request, response);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(config.tracingIdKey());
+        }
+    }
+
+    /**
+     * @return The inbound trace id if the request carries a valid one, a new id otherwise.
+     */
+    static String resolveTracingId(HttpServletRequest request) {
+        val traceparent = request.getHeader(TRACEPARENT_HEADER);
+        if (traceparent != null) {
+            val traceId = parseTraceparent(traceparent);
+            if (traceId != null) {
+                return traceId;
+            }
+        }
+
+        val requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId != null && isValidRequestId(requestId)) {
+            return requestId;
+        }
+
+        return TraceIdGenerator.next();
+    }
+
+    /**
+     * Extracts the trace id of a {@code version-traceid-parentid-flags} header, such as
+     * {@code 00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01}.
+     *
+     * @return The 32 hex digits of the trace id, or null if the header is malformed or the trace id is all zeros.
+     */
+    static String parseTraceparent(String traceparent) {
+        val value = traceparent.trim();
+        if (value.length() < 55 || value.charAt(2) != '-' || value.charAt(35) != '-' || value.charAt(52) != '-'
+                || !isLowerHex(value, 0, 2) || value.startsWith("ff") || !isLowerHex(value, 36, 52) || !isLowerHex(value, 53, 55)) {
+            return null;
+        }
+        // version 00 is exactly 55 characters, later versions may only append fields
+        if (value.length() > 55 && (value.startsWith("00") || value.charAt(55) != '-')) {
+            return null;
+        }
+
+        val traceId = value.substring(3, 35);
+        if (!isLowerHex(traceId, 0, 32) || traceId.chars().allMatch(c -> c == '0')) {
+            return null;
+        }
+        return traceId;
+    }
+
+    /**
+     * A request id ends up in the logs, so only short ids of URL-safe characters are accepted.
+     */
+    private static boolean isValidRequestId(String requestId) {
+        if (requestId.isEmpty() || requestId.length() > MAX_REQUEST_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < requestId.length(); i++) {
+            char c = requestId.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-' || c == '_' || c == '.')) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        MDC.clear();
+    private static boolean isLowerHex(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
     }
 }
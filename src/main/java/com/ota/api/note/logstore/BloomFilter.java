@@ -0,0 +1,66 @@
+package com.ota.api.note.logstore;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter of strings, used to skip the log segments that can't hold a tracing id.
+ * About 10 bits per expected item and 7 hash functions give a false positive rate around 1%.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+final class BloomFilter {
+    private static final int BITS_PER_ITEM = 10;
+    private static final int HASHES = 7;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+
+    BloomFilter(int expectedItems) {
+        int wordCount = Math.max(1, (int) (((long) expectedItems * BITS_PER_ITEM + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+    }
+
+    void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % this.bitCount;
+            long mask = 1L << bit;
+            this.words.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Integer.toUnsignedLong(h1 + i * h2) % this.bitCount;
+            if ((this.words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 64-bit FNV-1a over the characters, finished with the MurmurHash3 mixer so both halves are well distributed.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
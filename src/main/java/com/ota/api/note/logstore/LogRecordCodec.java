@@ -0,0 +1,171 @@
+package com.ota.api.note.logstore;
+
+import com.ota.api.note.models.dto.LogDTO;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of a log record in a segment.
+ * <pre>
+ * int    payload length
+ * int    CRC32C of the payload
+ * ---    payload
+ * long   timestamp, epoch millis
+ * int    status
+ * string tracingId, ipAddress, method, path, requestBody, responseBody
+ * </pre>
+ * A string is an int byte length followed by its UTF-8 bytes, a length of -1 stands for null.
+ * The length is written last, so a record torn by a crash has a zero length or fails its checksum.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+final class LogRecordCodec {
+    static final int HEADER_SIZE = 8;
+    private static final int FIXED_PAYLOAD_SIZE = 8 + 4;
+    private static final int FIELD_COUNT = 6;
+
+    private LogRecordCodec() {}
+
+    /**
+     * A log record with its strings already encoded, so only copying is left to do under the append lock.
+     */
+    record Encoded(long timestamp, int status, byte[][] fields, int size) {
+    }
+
+    static Encoded encode(LogDTO log) {
+        byte[][] fields = {
+                bytes(log.getTracingId()),
+                bytes(log.getIpAddress()),
+                bytes(log.getMethod()),
+                bytes(log.getPath()),
+                bytes(log.getRequestBody()),
+                bytes(log.getResponseBody())
+        };
+
+        int size = HEADER_SIZE + FIXED_PAYLOAD_SIZE;
+        for (byte[] field : fields) {
+            size += 4 + (field == null ? 0 : field.length);
+        }
+
+        long timestamp = log.getTimestamp() == null ? System.currentTimeMillis() : Instant.parse(log.getTimestamp()).toEpochMilli();
+        return new Encoded(timestamp, log.getStatus(), fields, size);
+    }
+
+    /**
+     * Writes a record at the given offset.
+     *
+     * @param buffer    The segment buffer.
+     * @param offset    The offset of the record.
+     * @param record    The encoded record.
+     * @param timestamp The timestamp to store, which may differ from the one of the record to keep the segment ordered.
+     */
+    static void write(ByteBuffer buffer, int offset, Encoded record, long timestamp) {
+        int position = offset + HEADER_SIZE;
+        buffer.putLong(position, timestamp);
+        buffer.putInt(position + 8, record.status());
+        position += FIXED_PAYLOAD_SIZE;
+
+        for (byte[] field : record.fields()) {
+            if (field == null) {
+                buffer.putInt(position, -1);
+                position += 4;
+            } else {
+                buffer.putInt(position, field.length);
+                buffer.put(position + 4, field);
+                position += 4 + field.length;
+            }
+        }
+
+        int payloadLength = record.size() - HEADER_SIZE;
+        buffer.putInt(offset + 4, checksum(buffer, offset + HEADER_SIZE, payloadLength));
+        buffer.putInt(offset, payloadLength);
+    }
+
+    /**
+     * Checks the record at the given offset, used when recovering a segment.
+     *
+     * @return The total size of the record, or -1 if there is no valid record at the offset.
+     */
+    static int validate(ByteBuffer buffer, int offset, int limit) {
+        if (offset + HEADER_SIZE > limit) {
+            return -1;
+        }
+
+        int payloadLength = buffer.getInt(offset);
+        if (payloadLength < FIXED_PAYLOAD_SIZE + FIELD_COUNT * 4 || offset + HEADER_SIZE + payloadLength > limit) {
+            return -1;
+        }
+        if (buffer.getInt(offset + 4) != checksum(buffer, offset + HEADER_SIZE, payloadLength)) {
+            return -1;
+        }
+        return HEADER_SIZE + payloadLength;
+    }
+
+    static int size(ByteBuffer buffer, int offset) {
+        return HEADER_SIZE + buffer.getInt(offset);
+    }
+
+    static long timestamp(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + HEADER_SIZE);
+    }
+
+    static int status(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset + HEADER_SIZE + 8);
+    }
+
+    static String tracingId(ByteBuffer buffer, int offset) {
+        return string(buffer, offset + HEADER_SIZE + FIXED_PAYLOAD_SIZE);
+    }
+
+    /**
+     * Decodes the record at the given offset.
+     *
+     * @param id The id given to the record.
+     */
+    static LogDTO decode(ByteBuffer buffer, int offset, long id) {
+        int position = offset + HEADER_SIZE + FIXED_PAYLOAD_SIZE;
+        String[] fields = new String[FIELD_COUNT];
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            fields[i] = string(buffer, position);
+            int length = buffer.getInt(position);
+            position += 4 + Math.max(length, 0);
+        }
+
+        return LogDTO.builder()
+                .id(id)
+                .timestamp(Instant.ofEpochMilli(timestamp(buffer, offset)).toString())
+                .status(status(buffer, offset))
+                .tracingId(fields[0])
+                .ipAddress(fields[1])
+                .method(fields[2])
+                .path(fields[3])
+                .requestBody(fields[4])
+                .responseBody(fields[5])
+                .build();
+    }
+
+    private static String string(ByteBuffer buffer, int position) {
+        int length = buffer.getInt(position);
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,187 @@
+package com.ota.api.note.logstore;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A memory-mapped file of log records, appended one after another after a small file header.
+ * <p>
+ * Appends are made by a single writer at a time, which {@link SegmentLogStore} guarantees, and
+ * the timestamps it writes never go backwards. Readers run concurrently and only look at the
+ * bytes before the published write position. Every {@code indexInterval} records the timestamp
+ * and offset of a record are added to a sparse index, which is used to start a time-range scan
+ * close to the first matching record. The tracing ids are added to a Bloom filter, so a lookup
+ * by tracing id only scans the segments that may hold it. Both are rebuilt when the segment is
+ * opened again.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+final class LogSegment {
+    static final int FILE_HEADER_SIZE = 16;
+    private static final int MAGIC = 0x4f544c47;
+    private static final int FORMAT_VERSION = 1;
+    private static final int MIN_BYTES_PER_RECORD = 256;
+
+    @Getter
+    private final long number;
+    @Getter
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int indexInterval;
+    private final ConcurrentSkipListMap<Long, Integer> timeIndex = new ConcurrentSkipListMap<>();
+    private final BloomFilter tracingIds;
+
+    private volatile int writePosition = FILE_HEADER_SIZE;
+    private volatile long firstTimestamp = Long.MAX_VALUE;
+    private volatile long lastTimestamp = Long.MIN_VALUE;
+    private int recordCount;
+
+    private LogSegment(long number, Path path, MappedByteBuffer buffer, int indexInterval) {
+        this.number = number;
+        this.path = path;
+        this.buffer = buffer;
+        this.indexInterval = indexInterval;
+        this.tracingIds = new BloomFilter(Math.max(1024, buffer.capacity() / MIN_BYTES_PER_RECORD));
+    }
+
+    /**
+     * Creates a new, empty segment file.
+     */
+    static LogSegment create(Path path, long number, int size, int indexInterval) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+        return new LogSegment(number, path, buffer, indexInterval);
+    }
+
+    /**
+     * Opens an existing segment file, scanning it up to the last complete record to rebuild its indexes.
+     *
+     * @throws IOException If the file isn't a log segment.
+     */
+    static LogSegment open(Path path, long number, int indexInterval) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size < FILE_HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException(STR."\{path} isn't a log segment");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException(STR."\{path} isn't a log segment");
+        }
+
+        LogSegment segment = new LogSegment(number, path, buffer, indexInterval);
+        int position = FILE_HEADER_SIZE;
+        int size;
+        while ((size = LogRecordCodec.validate(buffer, position, buffer.capacity())) > 0) {
+            segment.indexRecord(position, LogRecordCodec.timestamp(buffer, position), LogRecordCodec.tracingId(buffer, position));
+            position += size;
+        }
+        segment.writePosition = position;
+        return segment;
+    }
+
+    boolean hasRoomFor(int recordSize) {
+        return this.buffer.capacity() - this.writePosition >= recordSize;
+    }
+
+    /**
+     * Appends a record. The caller must hold the append lock and have checked {@link #hasRoomFor}.
+     *
+     * @param record    The encoded record.
+     * @param timestamp The timestamp to store, not before the last one of the segment.
+     * @return The offset of the record.
+     */
+    int append(LogRecordCodec.Encoded record, long timestamp, String tracingId) {
+        int offset = this.writePosition;
+        LogRecordCodec.write(this.buffer, offset, record, timestamp);
+        indexRecord(offset, timestamp, tracingId);
+        // the volatile write publishes the record to the readers
+        this.writePosition = offset + record.size();
+        return offset;
+    }
+
+    private void indexRecord(int offset, long timestamp, String tracingId) {
+        if (this.recordCount % this.indexInterval == 0) {
+            this.timeIndex.putIfAbsent(timestamp, offset);
+        }
+        if (tracingId != null) {
+            this.tracingIds.add(tracingId);
+        }
+        if (this.recordCount == 0) {
+            this.firstTimestamp = timestamp;
+        }
+        this.lastTimestamp = timestamp;
+        this.recordCount++;
+    }
+
+    /**
+     * Whether the segment may hold records of the tracing id, with a small rate of false positives.
+     */
+    boolean mightContain(String tracingId) {
+        return this.tracingIds.mightContain(tracingId);
+    }
+
+    boolean overlaps(long from, long to) {
+        return this.firstTimestamp <= to && this.lastTimestamp >= from;
+    }
+
+    /**
+     * Finds the offset to start a scan of the records from the given time, using the sparse index.
+     * Every record before the returned offset is older than {@code from}.
+     */
+    int seek(long from) {
+        var entry = this.timeIndex.lowerEntry(from);
+        return entry == null ? FILE_HEADER_SIZE : entry.getValue();
+    }
+
+    int writePosition() {
+        return this.writePosition;
+    }
+
+    MappedByteBuffer buffer() {
+        return this.buffer;
+    }
+
+    long lastTimestamp() {
+        return this.lastTimestamp;
+    }
+
+    boolean isEmpty() {
+        return this.writePosition == FILE_HEADER_SIZE;
+    }
+
+    long sizeOnDisk() {
+        return this.buffer.capacity();
+    }
+
+    void flush() {
+        this.buffer.force();
+    }
+
+    /**
+     * Deletes the segment file. The mapping itself is released once the segment is garbage collected.
+     */
+    boolean delete() {
+        try {
+            return Files.deleteIfExists(this.path);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
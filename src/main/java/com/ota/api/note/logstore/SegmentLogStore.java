@@ -0,0 +1,277 @@
+package com.ota.api.note.logstore;
+
+import com.ota.api.note.Config;
+import com.ota.api.note.models.dto.LogDTO;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only store of log records in rolling, memory-mapped segment files.
+ * <p>
+ * Records go to the active segment, and when it's full a new segment is created. Each file is
+ * named after its sequence number. Appending a record is a copy into the mapping under a
+ * {@link ReentrantLock}. Timestamps are clamped so they never go backwards, which keeps every
+ * segment ordered by time and lets a time-range scan stop at the first record past its window.
+ * A record is identified by its segment number in the high 32 bits and its offset in the low
+ * 32 bits, so ids grow in append order and can be used as a keyset cursor.
+ * <p>
+ * When a segment rolls, the oldest segments are deleted once they are older than {@code maxAge}
+ * or the segments take more than {@code maxTotalSize} on disk. On startup the existing segments
+ * are scanned up to their last complete record, which rebuilds their indexes and drops a record
+ * torn by a crash. Records are durable once the OS writes the mapped pages back. A segment is
+ * forced to disk when it rolls and when the store is closed.
+ *
+ * @see Config.LogStore
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+@Slf4j
+public class SegmentLogStore implements Closeable {
+    private static final Pattern SEGMENT_FILE = Pattern.compile("(\\d{20})\\.seg");
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxTotalSize;
+    private final long maxAgeMillis;
+    private final int indexInterval;
+    private final Clock clock;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final List<LogSegment> segments = new CopyOnWriteArrayList<>();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private LogSegment active;
+    private long nextNumber;
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    public SegmentLogStore(Config.LogStore settings) {
+        this(settings, Clock.systemUTC());
+    }
+
+    SegmentLogStore(Config.LogStore settings, Clock clock) {
+        this.directory = Path.of(settings.directory());
+        this.segmentSize = (int) Math.min(settings.segmentSize().toBytes(), Integer.MAX_VALUE);
+        this.maxTotalSize = settings.maxTotalSize().toBytes();
+        this.maxAgeMillis = settings.maxAge().toMillis();
+        this.indexInterval = Math.max(1, settings.indexInterval());
+        this.clock = clock;
+    }
+
+    /**
+     * Recovers the existing segments of the directory and applies the retention.
+     */
+    public void open() throws IOException {
+        Files.createDirectories(this.directory);
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(this.directory)) {
+            files = list.filter(file -> SEGMENT_FILE.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        }
+
+        this.appendLock.lock();
+        try {
+            val recovered = new ArrayList<LogSegment>();
+            for (val file : files) {
+                val matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+                matcher.matches();
+                val number = Long.parseLong(matcher.group(1));
+                this.nextNumber = Math.max(this.nextNumber, number + 1);
+
+                try {
+                    recovered.add(LogSegment.open(file, number, this.indexInterval));
+                } catch (IOException e) {
+                    log.warn("Skipping log segment {}: {}", file, e.getMessage());
+                }
+            }
+            this.segments.addAll(recovered);
+
+            if (recovered.isEmpty()) {
+                roll();
+            } else {
+                this.active = recovered.getLast();
+                this.lastTimestamp = this.active.lastTimestamp();
+                enforceRetention();
+            }
+            log.info("Opened log store {} with {} segments", this.directory, this.segments.size());
+        } finally {
+            this.appendLock.unlock();
+        }
+    }
+
+    /**
+     * Appends a log record to the active segment, rolling to a new segment when it's full.
+     * The strings are encoded before taking the lock, so the lock only covers the copy into the mapping.
+     *
+     * @param logDTO The log record.
+     * @return true if the record was stored; false if it was dropped because it's larger than a segment or the write failed.
+     */
+    public boolean append(LogDTO logDTO) {
+        val record = LogRecordCodec.encode(logDTO);
+        if (record.size() > this.segmentSize - LogSegment.FILE_HEADER_SIZE) {
+            this.dropped.incrementAndGet();
+            log.warn("Dropping a log record of {} bytes, larger than a segment", record.size());
+            return false;
+        }
+
+        this.appendLock.lock();
+        try {
+            if (!this.active.hasRoomFor(record.size())) {
+                roll();
+            }
+
+            val timestamp = Math.max(record.timestamp(), this.lastTimestamp);
+            this.active.append(record, timestamp, logDTO.getTracingId());
+            this.lastTimestamp = timestamp;
+            this.written.incrementAndGet();
+            return true;
+        } catch (IOException e) {
+            this.dropped.incrementAndGet();
+            log.error("Failed to roll the log segment", e);
+            return false;
+        } finally {
+            this.appendLock.unlock();
+        }
+    }
+
+    /**
+     * Visits the records in append order, skipping the segments outside the time range or without the tracing id.
+     *
+     * @param from      The epoch millis of the oldest record, inclusive.
+     * @param to        The epoch millis of the newest record, inclusive.
+     * @param tracingId Only the records of this tracing id, or null for all.
+     * @param afterId   Only the records after this id, or a negative value to start from the first one.
+     * @param visitor   Receives the matching records, returns false to stop the scan.
+     * @throws IllegalArgumentException If {@code afterId} isn't the id of a record of the store.
+     */
+    public void scan(long from, long to, String tracingId, long afterId, Predicate<LogDTO> visitor) {
+        val afterSegment = afterId < 0 ? -1 : afterId >>> 32;
+
+        for (val segment : this.segments) {
+            if (segment.getNumber() < afterSegment) {
+                continue;
+            }
+
+            // reading the write position first makes every record before it visible
+            val limit = segment.writePosition();
+            if (!segment.overlaps(from, to) || (tracingId != null && !segment.mightContain(tracingId))) {
+                continue;
+            }
+
+            val buffer = segment.buffer();
+            var position = segment.seek(from);
+            if (segment.getNumber() == afterSegment) {
+                val cursor = (int) afterId;
+                if (cursor < LogSegment.FILE_HEADER_SIZE || LogRecordCodec.validate(buffer, cursor, limit) < 0) {
+                    throw new IllegalArgumentException(STR."\{afterId} isn't the id of a log record");
+                }
+                position = Math.max(position, cursor + LogRecordCodec.size(buffer, cursor));
+            }
+
+            while (position < limit) {
+                val timestamp = LogRecordCodec.timestamp(buffer, position);
+                if (timestamp > to) {
+                    // timestamps never go backwards, across segments too
+                    return;
+                }
+
+                if (timestamp >= from && (tracingId == null || tracingId.equals(LogRecordCodec.tracingId(buffer, position)))) {
+                    val id = (segment.getNumber() << 32) | position;
+                    if (!visitor.test(LogRecordCodec.decode(buffer, position, id))) {
+                        return;
+                    }
+                }
+                position += LogRecordCodec.size(buffer, position);
+            }
+        }
+    }
+
+    /**
+     * @return The number of records appended since the store was opened.
+     */
+    public long written() {
+        return this.written.get();
+    }
+
+    /**
+     * @return The number of records dropped since the store was opened.
+     */
+    public long dropped() {
+        return this.dropped.get();
+    }
+
+    /**
+     * @return The number of segment files of the store.
+     */
+    public int segmentCount() {
+        return this.segments.size();
+    }
+
+    /**
+     * Forces every segment to disk.
+     */
+    @Override
+    public void close() {
+        this.appendLock.lock();
+        try {
+            this.segments.forEach(LogSegment::flush);
+        } finally {
+            this.appendLock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        if (this.active != null) {
+            this.active.flush();
+        }
+
+        val number = this.nextNumber++;
+        val path = this.directory.resolve(String.format("%020d.seg", number));
+        this.active = LogSegment.create(path, number, this.segmentSize, this.indexInterval);
+        this.segments.add(this.active);
+        enforceRetention();
+    }
+
+    /**
+     * Deletes the oldest segments past the age or total size limit. The active segment is always kept.
+     * Segments are ordered by time, so the first one that's kept ends the sweep.
+     */
+    private void enforceRetention() {
+        val cutoff = this.clock.millis() - this.maxAgeMillis;
+        var totalSize = this.segments.stream().mapToLong(LogSegment::sizeOnDisk).sum();
+
+        for (val segment : this.segments) {
+            if (segment == this.active) {
+                return;
+            }
+
+            val expired = segment.isEmpty() || segment.lastTimestamp() < cutoff;
+            if (!expired && totalSize <= this.maxTotalSize) {
+                return;
+            }
+
+            this.segments.remove(segment);
+            totalSize -= segment.sizeOnDisk();
+            if (!segment.delete()) {
+                log.warn("Failed to delete log segment {}, it'll be retried on the next start", segment.getPath());
+            }
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.ota.api.note.mapper;
 
+import com.ota.api.note.Config;
 import com.ota.api.note.models.dto.NoteDTO;
 import com.ota.api.note.models.entity.Note;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import static com.ota.api.note.utils.DateUtils.toISODate;
@@ -9,25 +12,53 @@ import static com.ota.api.note.utils.DateUtils.toISOString;
 
 @Service
 public class NoteMapper implements Mapper<Note, NoteDTO> {
+    private final int inlineBodySize;
+
+    public NoteMapper() {
+        this.inlineBodySize = Note.MAX_INLINE_BODY_LENGTH;
+    }
+
+    @Autowired
+    public NoteMapper(Config config) {
+        this.inlineBodySize = Math.min(config.noteStorage().inlineBodySize(), Note.MAX_INLINE_BODY_LENGTH);
+    }
+
+    /**
+     * Maps a note, reading its compressed body only when it doesn't fit inline.
+     */
     @Override
     public NoteDTO toDTO(Note note) {
+        return toDTO(note, note.getFullBody());
+    }
+
+    /**
+     * Maps a note with its whole body read separately, so its compressed body isn't loaded.
+     *
+     * @param note The note.
+     * @param body The whole body of the note.
+     * @return The mapped note.
+     */
+    public NoteDTO toDTO(Note note, String body) {
         return NoteDTO.builder()
                 .id(note.getId())
                 .title(note.getTitle())
-                .body(note.getBody())
+                .body(body)
                 .dateCreated(toISOString(note.getDateCreated()))
                 .dateUpdated(toISOString(note.getDateUpdated()))
+                .version(note.getVersion())
                 .build();
     }
 
     @Override
     public Note toEntity(NoteDTO dto) {
-        return Note.builder()
+        val note = Note.builder()
                 .id(dto.getId())
                 .title(dto.getTitle())
-                .body(dto.getBody())
                 .dateCreated(toISODate(dto.getDateCreated()))
                 .dateUpdated(toISODate(dto.getDateUpdated()))
+                .version(dto.getVersion())
                 .build();
+        note.setFullBody(dto.getBody(), this.inlineBodySize);
+        return note;
     }
 }
@@ -0,0 +1,36 @@
+package com.ota.api.note.metrics;
+
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.val;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Measures the time spent in the handler, from the controller call to the written response.
+ *
+ * @author Miko Chu
+ * @since 2024-05-14
+ */
+public class HandlerTimingInterceptor implements HandlerInterceptor {
+    private static final String START_ATTRIBUTE = HandlerTimingInterceptor.class.getName() + ".start";
+
+    @Override
+    public boolean preHandle(@Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response, @Nonnull Object handler) {
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(
+            @Nonnull HttpServletRequest request,
+            @Nonnull HttpServletResponse response,
+            @Nonnull Object handler,
+            Exception ex
+    ) {
+        val timings = RequestTimings.current();
+        if (timings != null && request.getAttribute(START_ATTRIBUTE) instanceof Long start) {
+            timings.addHandler(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.ota.api.note.metrics;
+
+import lombok.val;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the spirit of HdrHistogram.
+ * <p>
+ * Latencies are recorded in microseconds. Values below 32µs get a bucket each, above that every power of two
+ * is split into 32 linear sub-buckets, which bounds the relative error of a quantile to about 3%
+ * across the whole range of 1µs to about 19 hours. Recording is a single atomic increment,
+ * so concurrent requests never contend on a lock.
+ *
+ * @author Miko Chu
+ * @since 2024-05-14
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_BITS = 36;
+    private static final long MAX_MICROS = (1L << MAX_BITS) - 1;
+    private static final int BUCKETS = (MAX_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos The latency in nanoseconds, negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        val micros = Math.min(Math.max(nanos / 1000, 0), MAX_MICROS);
+        this.counts.incrementAndGet(indexOf(micros));
+        this.count.increment();
+        this.sumMicros.add(micros);
+    }
+
+    /**
+     * @return The number of recorded latencies.
+     */
+    public long count() {
+        return this.count.sum();
+    }
+
+    /**
+     * @return The sum of the recorded latencies in seconds.
+     */
+    public double sumSeconds() {
+        return this.sumMicros.sum() / 1e6;
+    }
+
+    /**
+     * Computes the latencies at the given quantiles from a single pass over the buckets.
+     *
+     * @param quantiles The quantiles between 0 and 1, in ascending order.
+     * @return The latency in seconds at every quantile, NaN if nothing was recorded.
+     */
+    public double[] quantileSeconds(double... quantiles) {
+        val snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = this.counts.get(i);
+            total += snapshot[i];
+        }
+
+        val values = new double[quantiles.length];
+        if (total == 0) {
+            Arrays.fill(values, Double.NaN);
+            return values;
+        }
+
+        long seen = 0;
+        int bucket = 0;
+        for (int q = 0; q < quantiles.length; q++) {
+            val rank = Math.max(1, (long) Math.ceil(quantiles[q] * total));
+            while (bucket < BUCKETS - 1 && seen + snapshot[bucket] < rank) {
+                seen += snapshot[bucket];
+                bucket++;
+            }
+            values[q] = valueOf(bucket) / 1e6;
+        }
+        return values;
+    }
+
+    static int indexOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+
+        val shift = (63 - Long.numberOfLeadingZeros(micros)) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (micros >>> shift);
+    }
+
+    /**
+     * @return The midpoint of the bucket in microseconds.
+     */
+    static double valueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        val shift = index / SUB_BUCKETS - 1;
+        val subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        val lower = (long) subBucket << shift;
+        val upper = ((long) (subBucket + 1) << shift) - 1;
+        return (lower + upper) / 2.0;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ota.api.note.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Wires the request instrumentation into Spring MVC and the repositories.
+ *
+ * @see com.ota.api.note.filters.MetricsFilter
+ *
+ * @author Miko Chu
+ * @since 2024-05-14
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerTimingInterceptor());
+    }
+
+    @Bean
+    public static BeanPostProcessor repositoryTimingPostProcessor() {
+        return new RepositoryTimingPostProcessor();
+    }
+}
@@ -0,0 +1,54 @@
+package com.ota.api.note.metrics;
+
+import lombok.val;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Adds the time spent in repository calls to the {@link RequestTimings} of the current request.
+ * <p>
+ * Spring Data repositories are already proxies, the timing advice is put in front of their advice chain.
+ * Other {@link Repository} beans get a class-based proxy.
+ *
+ * @author Miko Chu
+ * @since 2024-05-14
+ */
+public class RepositoryTimingPostProcessor implements BeanPostProcessor {
+    private static final MethodInterceptor TIMING = invocation -> {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            return invocation.proceed();
+        }
+
+        boolean outermost = timings.enterRepository();
+        long start = outermost ? System.nanoTime() : 0L;
+        try {
+            return invocation.proceed();
+        } finally {
+            timings.exitRepository(outermost ? System.nanoTime() - start : 0L);
+        }
+    };
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        val isSpringDataRepository = bean instanceof org.springframework.data.repository.Repository<?, ?>;
+        if (!isSpringDataRepository && !AnnotatedElementUtils.hasAnnotation(AopUtils.getTargetClass(bean), Repository.class)) {
+            return bean;
+        }
+
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, TIMING);
+            return bean;
+        }
+
+        val proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(TIMING);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+}
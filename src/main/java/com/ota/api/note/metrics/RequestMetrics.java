@@ -0,0 +1,95 @@
+package com.ota.api.note.metrics;
+
+import lombok.val;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency histograms of the handled requests, one set per method, route template and status class.
+ * <p>
+ * Every set breaks the total time of a request down into phases:
+ * <ul>
+ *     <li>{@code filter}: the filter chain, excluding the handler and the log write</li>
+ *     <li>{@code handler}: the controller and the services, excluding the repositories</li>
+ *     <li>{@code repository}: the repository calls, including the database round trips</li>
+ *     <li>{@code log_write}: handing the request log to the log store and the console</li>
+ * </ul>
+ * The histograms cover the whole lifetime of the application, like the counters of a Prometheus summary.
+ *
+ * @see RequestTimings
+ *
+ * @author Miko Chu
+ * @since 2024-05-14
+ */
+@Component
+public class RequestMetrics {
+    static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    static final String[] PHASES = {"total", "filter", "handler", "repository", "log_write"};
+
+    private final Map<Key, LatencyHistogram[]> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * Records the timings of a completed request.
+     *
+     * @param method  The HTTP method.
+     * @param route   The route template, e.g. {@code /api/notes/{id}}.
+     * @param status  The HTTP status code.
+     * @param timings The timings of the request.
+     */
+    public void record(String method, String route, int status, RequestTimings timings) {
+        val key = new Key(method, route, STR."\{status / 100}xx");
+        val phases = this.histograms.computeIfAbsent(key, k -> newHistograms());
+
+        val total = timings.elapsedNanos();
+        val handler = timings.handlerNanos();
+        val repository = Math.min(timings.repositoryNanos(), handler);
+
+        phases[0].record(total);
+        phases[1].record(total - handler - timings.logWriteNanos());
+        phases[2].record(handler - repository);
+        phases[3].record(repository);
+        phases[4].record(timings.logWriteNanos());
+    }
+
+    /**
+     * Writes the histograms as a Prometheus summary named {@code http_server_requests_seconds}.
+     *
+     * @param out The exposition being built.
+     */
+    public void writeTo(StringBuilder out) {
+        out.append("# HELP http_server_requests_seconds Request latency by route, status class and phase.\n");
+        out.append("# TYPE http_server_requests_seconds summary\n");
+
+        for (val entry : this.histograms.entrySet()) {
+            val key = entry.getKey();
+            for (int i = 0; i < PHASES.length; i++) {
+                val histogram = entry.getValue()[i];
+                val labels = STR."method=\"\{escape(key.method())}\",route=\"\{escape(key.route())}\",status=\"\{key.statusClass()}\",phase=\"\{PHASES[i]}\"";
+
+                val values = histogram.quantileSeconds(QUANTILES);
+                for (int q = 0; q < QUANTILES.length; q++) {
+                    out.append(STR."http_server_requests_seconds{\{labels},quantile=\"\{QUANTILES[q]}\"} \{values[q]}\n");
+                }
+                out.append(STR."http_server_requests_seconds_sum{\{labels}} \{histogram.sumSeconds()}\n");
+                out.append(STR."http_server_requests_seconds_count{\{labels}} \{histogram.count()}\n");
+            }
+        }
+    }
+
+    private static LatencyHistogram[] newHistograms() {
+        val phases = new LatencyHistogram[PHASES.length];
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+        return phases;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private record Key(String method, String route, String statusClass) {
+    }
+}
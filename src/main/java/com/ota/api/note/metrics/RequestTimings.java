@@ -0,0 +1,92 @@
+package com.ota.api.note.metrics;
+
+/**
+ * Time spent by the current request in each layer, collected on the request thread.
+ * <p>
+ * {@link com.ota.api.note.filters.MetricsFilter} opens the timings when the request enters the filter chain,
+ * the layers below add their own time through {@link #current()}, which is null outside of a request,
+ * e.g. on the log pipeline writer.
+ *
+ * @author Miko Chu
+ * @since 2024-05-14
+ */
+public final class RequestTimings {
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private long handlerNanos;
+    private long repositoryNanos;
+    private long logWriteNanos;
+    private int repositoryDepth;
+
+    private RequestTimings() {}
+
+    /**
+     * Opens the timings of a request on the current thread.
+     *
+     * @return The timings of the request.
+     */
+    public static RequestTimings start() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    /**
+     * @return The timings of the request being handled on the current thread, or null if there is none.
+     */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Closes the timings of the request on the current thread.
+     */
+    public void end() {
+        CURRENT.remove();
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - this.startNanos;
+    }
+
+    public void addHandler(long nanos) {
+        this.handlerNanos += nanos;
+    }
+
+    public void addLogWrite(long nanos) {
+        this.logWriteNanos += nanos;
+    }
+
+    /**
+     * Marks the start of a repository call, nested calls are counted as part of the outermost one.
+     *
+     * @return true if this is the outermost repository call.
+     */
+    public boolean enterRepository() {
+        return this.repositoryDepth++ == 0;
+    }
+
+    /**
+     * Marks the end of a repository call.
+     *
+     * @param nanos The time spent in the call, only counted for the outermost one.
+     */
+    public void exitRepository(long nanos) {
+        if (--this.repositoryDepth == 0) {
+            this.repositoryNanos += nanos;
+        }
+    }
+
+    public long handlerNanos() {
+        return this.handlerNanos;
+    }
+
+    public long repositoryNanos() {
+        return this.repositoryNanos;
+    }
+
+    public long logWriteNanos() {
+        return this.logWriteNanos;
+    }
+}
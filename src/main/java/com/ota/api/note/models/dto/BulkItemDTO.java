@@ -0,0 +1,47 @@
+package com.ota.api.note.models.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * BulkItemDTO represents the outcome of a single item of a bulk request.
+ *
+ * @author Miko Chu
+ * @since 2024-05-09
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemDTO {
+    /**
+     * The position of the item in the bulk request.
+     */
+    private int index;
+
+    /**
+     * The HTTP status the item would have received as a single request.
+     */
+    private int status;
+
+    /**
+     * The id of the affected note, if known.
+     */
+    private Long id;
+
+    /**
+     * The resulting note, for successful creates and updates.
+     */
+    private NoteDTO note;
+
+    /**
+     * The reasons the item failed.
+     */
+    private List<String> errors;
+}
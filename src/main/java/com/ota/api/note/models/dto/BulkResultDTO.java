@@ -0,0 +1,36 @@
+package com.ota.api.note.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * BulkResultDTO represents the response of a bulk request,
+ * it reports the outcome of every item in the order they were sent.
+ *
+ * @author Miko Chu
+ * @since 2024-05-09
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkResultDTO {
+    /**
+     * The outcome of every item of the request.
+     */
+    private List<BulkItemDTO> items;
+
+    /**
+     * The number of items that succeeded.
+     */
+    private int succeeded;
+
+    /**
+     * The number of items that failed.
+     */
+    private int failed;
+}
@@ -0,0 +1,33 @@
+package com.ota.api.note.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ExportParamsDTO represents the request parameters of the note export.
+ * It encapsulates the query string and the range of modification dates to export.
+ *
+ * @author Miko Chu
+ * @since 2024-05-10
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportParamsDTO {
+    /**
+     * The query string used for filtering the exported notes, exports every note when empty.
+     * It's matched by the database against the title and the inline body, like a listing without the search index.
+     */
+    private String query = "";
+
+    /**
+     * The inclusive lower bound of the modification date, as an ISO-8601 instant. Unbounded when null.
+     */
+    private String from;
+
+    /**
+     * The exclusive upper bound of the modification date, as an ISO-8601 instant. Unbounded when null.
+     */
+    private String to;
+}
@@ -0,0 +1,35 @@
+package com.ota.api.note.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * ImportErrorDTO represents a record rejected by the note import.
+ *
+ * @author Miko Chu
+ * @since 2024-05-11
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportErrorDTO {
+    /**
+     * The position of the record in the imported stream, starting at 0.
+     */
+    private long index;
+
+    /**
+     * The line where the record starts, starting at 1.
+     */
+    private long line;
+
+    /**
+     * The reasons the record was rejected.
+     */
+    private List<String> errors;
+}
@@ -0,0 +1,41 @@
+package com.ota.api.note.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * ImportResultDTO represents the summary of a note import.
+ * Only the first rejected records are detailed to keep the summary small, the counters cover every record.
+ *
+ * @author Miko Chu
+ * @since 2024-05-11
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDTO {
+    /**
+     * The number of records that were stored.
+     */
+    private long accepted;
+
+    /**
+     * The number of records that were rejected.
+     */
+    private long rejected;
+
+    /**
+     * Whether the import stopped early because the input is not valid JSON.
+     */
+    private boolean aborted;
+
+    /**
+     * The details of the first rejected records.
+     */
+    private List<ImportErrorDTO> errors;
+}
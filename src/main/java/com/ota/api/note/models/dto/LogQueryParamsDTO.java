@@ -0,0 +1,65 @@
+package com.ota.api.note.models.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * LogQueryParamsDTO represents the request parameters of the request-log query.
+ * Every filter is optional, and the logs are returned oldest first with keyset pagination.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogQueryParamsDTO {
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Only the logs of this tracing id.
+     */
+    private String tracingId;
+
+    /**
+     * Only the logs whose path starts with this prefix.
+     */
+    private String path;
+
+    /**
+     * The inclusive lower bound of the response status.
+     */
+    private Integer minStatus;
+
+    /**
+     * The inclusive upper bound of the response status.
+     */
+    private Integer maxStatus;
+
+    /**
+     * The inclusive lower bound of the timestamp, as an ISO-8601 instant. Unbounded when null.
+     */
+    private String from;
+
+    /**
+     * The inclusive upper bound of the timestamp, as an ISO-8601 instant. Unbounded when null.
+     */
+    private String to;
+
+    /**
+     * The opaque cursor returned as {@code nextCursor} by the previous page, null for the first page.
+     */
+    private String cursor;
+
+    private int pageSize = 50;
+
+    /**
+     * The number of logs per page. Defaults to 50 when not positive, and is capped at {@value #MAX_PAGE_SIZE}.
+     *
+     * @return The effective page size.
+     */
+    public int getPageSize() {
+        return pageSize <= 0 ? 50 : Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+}
@@ -15,4 +15,5 @@ public class NoteDTO {
     private String body;
     private String dateCreated;
     private String dateUpdated;
+    private Long version;
 }
@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 /**
  * PaginateParamsDTO represents a reusable data transfer object for representing request parameters
  * related to pagination in RESTful APIs.
- * It encapsulates query string, sorting criteria, page index, and page size.
+ * It encapsulates query string, sorting criteria, page index, page size, an optional cursor and the count strategy.
  *
  * @author Miko Chu
  * @since 2024-04-28
@@ -32,6 +32,30 @@ public class PaginateParamsDTO {
     private int page = 0;
     private int pageSize = 10;
 
+    /**
+     * The opaque cursor returned as {@code nextCursor} by the previous page, switches the request to keyset pagination.
+     * An empty cursor requests the first page, while null (the default) keeps the page index based pagination.
+     */
+    private String cursor;
+
+    /**
+     * How the total number of items is computed: {@code exact} counts them on every request,
+     * {@code cached} serves a count maintained or cached across requests, which can briefly lag behind the writes,
+     * and {@code none} skips the count and only tells whether there is a next page. Defaults to exact.
+     */
+    private String count = "exact";
+
+    /**
+     * The comma-separated fields of the notes to return, out of id, title, body, dateCreated, dateUpdated and version.
+     * The id and version are always returned. Empty (the default) returns every field.
+     */
+    private String fields = "";
+
+    /**
+     * Returns only the first N characters of the body. Null (the default) returns the whole body.
+     */
+    private Integer snippet;
+
     /**
      * The number of items per page in the paginated response. Defaults to 10.
      * If set to a non-positive value, it defaults to 10.
@@ -51,4 +75,11 @@ public class PaginateParamsDTO {
     public String getSortBy(String defValue) {
         return sortBy.isEmpty() ? defValue : sortBy;
     }
+
+    /**
+     * @return true if the request asks for keyset pagination.
+     */
+    public boolean isCursorMode() {
+        return cursor != null;
+    }
 }
@@ -1,5 +1,6 @@
 package com.ota.api.note.models.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,6 +11,8 @@ import java.util.List;
 /**
  * PaginatedDTO represents a generic data transfer object for paginated responses in RESTful APIs.
  * It encapsulates a list of items, pagination metadata such as page index, total pages, and total items.
+ * The totals are -1 when they are not counted, as in keyset pagination or with the {@code none} count strategy,
+ * in which case {@code hasNext} tells whether there are more items.
  *
  * @param <T> The type of items contained in the paginated response.
  */
@@ -37,4 +40,20 @@ public class PaginatedDTO<T> {
      * The total number of items available in the entire dataset.
      */
     private long totalItems;
+
+    /**
+     * The count strategy the totals were computed with: exact, cached or none.
+     */
+    private String countStrategy;
+
+    /**
+     * Whether there are items after the current page.
+     */
+    private boolean hasNext;
+
+    /**
+     * The cursor of the next page in keyset pagination, null when there are no more items.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 }
@@ -0,0 +1,15 @@
+package com.ota.api.note.models.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A note read with only some of its fields, returned by the listing when {@code fields} or {@code snippet}
+ * is given. The fields that weren't read are left out of the response instead of being sent as null,
+ * while every other note response keeps the full shape of {@link NoteDTO}.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PartialNoteDTO extends NoteDTO {
+}
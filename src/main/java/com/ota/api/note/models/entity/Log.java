@@ -1,8 +1,12 @@
 package com.ota.api.note.models.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,20 +16,35 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.util.Date;
 
 @Entity
+// a tracing id page is read in id order straight from its index; a path prefix or a time window only
+// narrows the rows through its index, and the page is then sorted by id
+@Table(indexes = {
+        @Index(name = "idx_log_tracing_id", columnList = "tracingId, id"),
+        @Index(name = "idx_log_path", columnList = "path, id"),
+        @Index(name = "idx_log_timestamp", columnList = "timestamp, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Log {
+    /**
+     * The longest body kept by the log, the upper bound of app.http-logger.max-body-size.
+     */
+    public static final int MAX_BODY_LENGTH = 65536;
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String tracingId;
     private String ipAddress;
     private String method;
     private String path;
     private int status;
+    // a body decodes to at most as many characters as bytes, plus the truncation marker
+    @Column(length = MAX_BODY_LENGTH + 32)
     private String requestBody;
+    @Column(length = MAX_BODY_LENGTH + 32)
     private String responseBody;
 
     @CreationTimestamp
@@ -1,12 +1,23 @@
 package com.ota.api.note.models.entity;
 
+import jakarta.persistence.Basic;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import lombok.val;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -18,16 +29,81 @@ import java.util.Date;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Note {
+    /**
+     * The length of the inline body column, which bounds the configured inline body size.
+     */
+    public static final int MAX_INLINE_BODY_LENGTH = 1024;
+
+    /**
+     * The longest body a note accepts, the bodies past the inline size are stored compressed.
+     */
+    public static final int MAX_BODY_LENGTH = 1024 * 1024;
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "note_seq")
+    @SequenceGenerator(name = "note_seq", sequenceName = "note_seq", allocationSize = 50)
     private Long id;
 
     private String title;
+
+    /**
+     * The body when it fits inline, otherwise its leading characters, which the queries and snippets read.
+     */
+    @Column(length = MAX_INLINE_BODY_LENGTH)
     private String body;
 
+    /**
+     * Whether the whole body is in {@link #bodyData}, so the short bodies never load it.
+     */
+    private boolean bodyCompressed;
+
+    /**
+     * The whole body when it doesn't fit inline, compressed, and only read and inflated when accessed.
+     * The paths mapping a batch of notes read the bodies of the batch with one query instead,
+     * see {@code NoteRepository#findBodyDataByIdIn}.
+     */
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Convert(converter = CompressedTextConverter.class)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private String bodyData;
+
     @CreationTimestamp
     private Date dateCreated;
 
     @UpdateTimestamp
     private Date dateUpdated;
+
+    @Version
+    private Long version;
+
+    /**
+     * @return The whole body, decompressed from {@link #bodyData} when it doesn't fit inline.
+     */
+    public String getFullBody() {
+        return this.bodyCompressed ? this.bodyData : this.body;
+    }
+
+    /**
+     * Stores the body inline when it's at most {@code inlineSize} characters long, otherwise keeps
+     * its leading characters inline and the whole body in {@link #bodyData}.
+     *
+     * @param body       The whole body.
+     * @param inlineSize The maximum length of an inline body.
+     */
+    public void setFullBody(String body, int inlineSize) {
+        if (body == null || body.length() <= inlineSize) {
+            this.body = body;
+            this.bodyCompressed = false;
+            this.bodyData = null;
+            return;
+        }
+
+        // don't split a surrogate pair at the end of the preview
+        val end = Character.isHighSurrogate(body.charAt(inlineSize - 1)) ? inlineSize - 1 : inlineSize;
+        this.body = body.substring(0, end);
+        this.bodyCompressed = true;
+        this.bodyData = body;
+    }
 }
@@ -1,5 +1,6 @@
 package com.ota.api.note.models.form;
 
+import com.ota.api.note.models.entity.Note;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -17,6 +18,6 @@ public class NoteForm {
 
     @NotEmpty(message = "Body is required")
     @Size(min = 3, message = "Body must be at least {min} characters long.")
-    @Size(max = 255, message = "Body must not exceed {max} characters long.")
+    @Size(max = Note.MAX_BODY_LENGTH, message = "Body must not exceed {max} characters long.")
     private String body;
 }
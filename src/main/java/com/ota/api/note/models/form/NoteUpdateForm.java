@@ -0,0 +1,19 @@
+package com.ota.api.note.models.form;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class NoteUpdateForm extends NoteForm {
+    @NotNull(message = "Id is required")
+    private Long id;
+
+    public NoteUpdateForm(Long id, String title, String body) {
+        super(title, body);
+        this.id = id;
+    }
+}
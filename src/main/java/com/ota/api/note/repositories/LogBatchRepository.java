@@ -0,0 +1,57 @@
+package com.ota.api.note.repositories;
+
+import com.ota.api.note.models.dto.LogDTO;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The LogBatchRepository writes log entries with plain JDBC batch inserts.
+ * It bypasses the persistence context on purpose, log entries are write-only data
+ * and don't need to be tracked by Hibernate.
+ *
+ * @author Miko Chu
+ * @since 2024-05-04
+ */
+@Repository
+public class LogBatchRepository {
+    private static final String INSERT_SQL = """
+        INSERT INTO log (tracing_id, ip_address, method, path, status, request_body, response_body, timestamp)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public LogBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts all the given log entries using a single JDBC batch.
+     *
+     * @param logs The log entries to insert.
+     */
+    public void insertAll(List<LogDTO> logs) {
+        this.jdbcTemplate.batchUpdate(INSERT_SQL, logs, logs.size(), (ps, log) -> {
+            ps.setString(1, log.getTracingId());
+            ps.setString(2, log.getIpAddress());
+            ps.setString(3, log.getMethod());
+            ps.setString(4, log.getPath());
+            ps.setInt(5, log.getStatus());
+            ps.setString(6, log.getRequestBody());
+            ps.setString(7, log.getResponseBody());
+            ps.setTimestamp(8, toTimestamp(log.getTimestamp()));
+        });
+    }
+
+    private static Timestamp toTimestamp(String timestamp) {
+        val instant = timestamp == null ? Instant.now() : Instant.parse(timestamp);
+        return Timestamp.from(instant);
+    }
+}
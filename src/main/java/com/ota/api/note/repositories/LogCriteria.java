@@ -0,0 +1,119 @@
+package com.ota.api.note.repositories;
+
+import com.ota.api.note.errors.SimpleError;
+import com.ota.api.note.models.dto.LogDTO;
+import com.ota.api.note.models.dto.LogQueryParamsDTO;
+import com.ota.api.note.models.dto.PaginatedDTO;
+import com.ota.api.note.spring.KeysetCursor;
+import lombok.val;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * The parsed filters of a request-log query, shared by the log stores.
+ * Every page holds the logs after the {@code afterId} cursor in ascending id order, and one extra
+ * log is fetched to tell whether there's a next page.
+ *
+ * @param tracingId  Only the logs of this tracing id, or null.
+ * @param pathPrefix Only the logs whose path starts with this prefix, or null.
+ * @param minStatus  The inclusive lower bound of the status.
+ * @param maxStatus  The inclusive upper bound of the status.
+ * @param from       The inclusive lower bound of the timestamp, or null.
+ * @param to         The inclusive upper bound of the timestamp, or null.
+ * @param afterId    The id of the last log of the previous page, or -1 for the first page.
+ * @param pageSize   The number of logs per page.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+public record LogCriteria(
+        String tracingId,
+        String pathPrefix,
+        int minStatus,
+        int maxStatus,
+        Instant from,
+        Instant to,
+        long afterId,
+        int pageSize
+) {
+    private static final String CURSOR_KIND = "log";
+
+    /**
+     * Parses the request parameters.
+     *
+     * @param params The request parameters.
+     * @return The criteria.
+     * @throws SimpleError If a timestamp or the cursor is malformed.
+     */
+    public static LogCriteria of(LogQueryParamsDTO params) {
+        var afterId = -1L;
+        if (params.getCursor() != null && !params.getCursor().isEmpty()) {
+            val cursor = KeysetCursor.decode(params.getCursor());
+            if (!cursor.sortBy().equals(CURSOR_KIND)) {
+                throw new SimpleError("Invalid cursor.");
+            }
+            afterId = cursor.id();
+        }
+
+        return new LogCriteria(
+                emptyToNull(params.getTracingId()),
+                emptyToNull(params.getPath()),
+                params.getMinStatus() == null ? 0 : params.getMinStatus(),
+                params.getMaxStatus() == null ? Integer.MAX_VALUE : params.getMaxStatus(),
+                parseInstant(params.getFrom()),
+                parseInstant(params.getTo()),
+                afterId,
+                params.getPageSize()
+        );
+    }
+
+    /**
+     * Checks the filters that aren't answered by an index of the store.
+     */
+    public boolean matches(LogDTO log) {
+        return log.getStatus() >= this.minStatus
+                && log.getStatus() <= this.maxStatus
+                && (this.pathPrefix == null || (log.getPath() != null && log.getPath().startsWith(this.pathPrefix)));
+    }
+
+    /**
+     * Builds the page out of the logs fetched for it, up to {@code pageSize + 1} of them.
+     *
+     * @param logs The logs in ascending id order.
+     * @return The page, with the cursor of the next page when the extra log was fetched.
+     */
+    public PaginatedDTO<LogDTO> page(List<LogDTO> logs) {
+        val hasNext = logs.size() > this.pageSize;
+        val items = hasNext ? logs.subList(0, this.pageSize) : logs;
+        val nextCursor = hasNext
+                ? new KeysetCursor(CURSOR_KIND, "", items.getLast().getId()).encode()
+                : null;
+
+        return PaginatedDTO.<LogDTO>builder()
+                .items(items)
+                .totalPages(-1)
+                .totalItems(-1)
+                .countStrategy("none")
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static Instant parseInstant(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new SimpleError(STR."'\{value}' is not a valid ISO-8601 instant.");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ota.api.note.repositories;
+
+import com.ota.api.note.models.entity.Log;
+
+import java.util.List;
+
+/**
+ * Repository fragment of {@link LogRepository} querying the logs by any combination of filters.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+public interface LogQueryRepository {
+    /**
+     * Finds a page of logs after the cursor, in ascending id order.
+     *
+     * @param criteria The filters and the cursor.
+     * @param limit    The maximum number of logs to return.
+     * @return The matching logs.
+     */
+    List<Log> findByCriteria(LogCriteria criteria, int limit);
+}
@@ -0,0 +1,75 @@
+package com.ota.api.note.repositories;
+
+import com.ota.api.note.models.entity.Log;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.Predicate;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Builds the log query with the Criteria API, so only the given filters end up in the WHERE clause
+ * and the database can pick the matching index of {@link Log}. The page is read by seeking past the
+ * last id rather than skipping an offset. Only a tracing id filter reads its rows in id order from the index;
+ * with a path prefix or a time window, the matching rows after the cursor are sorted by id before the limit.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+public class LogQueryRepositoryImpl implements LogQueryRepository {
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public LogQueryRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Log> findByCriteria(LogCriteria criteria, int limit) {
+        val builder = this.entityManager.getCriteriaBuilder();
+        val query = builder.createQuery(Log.class);
+        val log = query.from(Log.class);
+
+        val predicates = new ArrayList<Predicate>();
+        if (criteria.tracingId() != null) {
+            predicates.add(builder.equal(log.get("tracingId"), criteria.tracingId()));
+        }
+        if (criteria.pathPrefix() != null) {
+            predicates.add(builder.like(log.<String>get("path"), STR."\{escapeLike(criteria.pathPrefix())}%", LIKE_ESCAPE));
+        }
+        if (criteria.minStatus() > 0) {
+            predicates.add(builder.greaterThanOrEqualTo(log.<Integer>get("status"), criteria.minStatus()));
+        }
+        if (criteria.maxStatus() < Integer.MAX_VALUE) {
+            predicates.add(builder.lessThanOrEqualTo(log.<Integer>get("status"), criteria.maxStatus()));
+        }
+        if (criteria.from() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(log.<Date>get("timestamp"), Date.from(criteria.from())));
+        }
+        if (criteria.to() != null) {
+            predicates.add(builder.lessThanOrEqualTo(log.<Date>get("timestamp"), Date.from(criteria.to())));
+        }
+        if (criteria.afterId() >= 0) {
+            predicates.add(builder.greaterThan(log.<Long>get("id"), criteria.afterId()));
+        }
+
+        query.select(log)
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(builder.asc(log.get("id")));
+
+        return this.entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -10,9 +10,10 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * <p>Through this repository, you can perform operations such as saving new log entries,
  * retrieving log entries by their unique identifiers, updating existing log entries,
  * deleting log entries, and performing various other queries as needed.
+ * The filtered, keyset-paginated log query comes from the {@link LogQueryRepository} fragment.
  *
  * @author Miko Chu
  * @since 2024-04-28
  */
-public interface LogRepository extends JpaRepository<Log, Long> {
+public interface LogRepository extends JpaRepository<Log, Long>, LogQueryRepository {
 }
@@ -0,0 +1,33 @@
+package com.ota.api.note.repositories;
+
+import com.ota.api.note.spring.KeysetCursor;
+
+import java.util.Collection;
+
+/**
+ * The rows a projected note query is restricted to.
+ *
+ * @param query The string the title or body ends with, case-insensitively, as in {@link NoteRepository#findAllByQuery}, or null.
+ * @param ids   The ids of the notes, or null.
+ * @param after The keyset position the rows follow, or null.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+public record NoteFilter(String query, Collection<Long> ids, KeysetCursor after) {
+    public static NoteFilter all() {
+        return new NoteFilter(null, null, null);
+    }
+
+    public static NoteFilter matching(String query) {
+        return new NoteFilter(query == null || query.isEmpty() ? null : query, null, null);
+    }
+
+    public static NoteFilter ids(Collection<Long> ids) {
+        return new NoteFilter(null, ids, null);
+    }
+
+    public static NoteFilter after(KeysetCursor cursor) {
+        return new NoteFilter(null, null, cursor);
+    }
+}
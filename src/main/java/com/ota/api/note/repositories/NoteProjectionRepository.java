@@ -0,0 +1,28 @@
+package com.ota.api.note.repositories;
+
+import com.ota.api.note.models.dto.NoteDTO;
+import com.ota.api.note.models.dto.PartialNoteDTO;
+
+import java.util.List;
+
+/**
+ * Repository fragment of {@link NoteRepository} reading only the selected columns of the notes.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+public interface NoteProjectionRepository {
+    /**
+     * Reads a page of notes straight into {@link PartialNoteDTO}s, leaving the unselected fields null
+     * so they are omitted from the response.
+     *
+     * @param selection The columns to read.
+     * @param filter    The rows to read.
+     * @param sortBy    The field sorted by in ascending order, ties are broken by id.
+     * @param offset    The number of rows to skip.
+     * @param limit     The maximum number of rows to return.
+     * @return The notes.
+     * @throws NumberFormatException If the key of a date cursor isn't a number.
+     */
+    List<NoteDTO> findProjected(NoteSelection selection, NoteFilter filter, String sortBy, long offset, int limit);
+}
@@ -0,0 +1,151 @@
+package com.ota.api.note.repositories;
+
+import com.ota.api.note.Config;
+import com.ota.api.note.models.dto.NoteDTO;
+import com.ota.api.note.models.dto.PartialNoteDTO;
+import com.ota.api.note.models.entity.Note;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import static com.ota.api.note.utils.DateUtils.toISOString;
+
+/**
+ * Builds the projected note query with the Criteria API as a tuple query, so the database only
+ * sends the selected columns and no entity is loaded into the persistence context. A body snippet
+ * that fits in the inline body is cut by the database with {@code SUBSTRING}, so neither the rest
+ * of the body nor the compressed one ever leaves it.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+public class NoteProjectionRepositoryImpl implements NoteProjectionRepository {
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final EntityManager entityManager;
+    private final int inlineBodySize;
+
+    @Autowired
+    public NoteProjectionRepositoryImpl(EntityManager entityManager, Config config) {
+        this.entityManager = entityManager;
+        this.inlineBodySize = Math.min(config.noteStorage().inlineBodySize(), Note.MAX_INLINE_BODY_LENGTH);
+    }
+
+    @Override
+    public List<NoteDTO> findProjected(NoteSelection selection, NoteFilter filter, String sortBy, long offset, int limit) {
+        val builder = this.entityManager.getCriteriaBuilder();
+        val query = builder.createTupleQuery();
+        val note = query.from(Note.class);
+
+        val selections = new ArrayList<Selection<?>>();
+        selections.add(note.get("id").alias("id"));
+        selections.add(note.get("version").alias("version"));
+        if (selection.includes("title")) {
+            selections.add(note.get("title").alias("title"));
+        }
+        val inlineOnly = selection.snippet() != null && selection.snippet() <= this.inlineBodySize;
+        if (selection.includes("body")) {
+            val body = note.<String>get("body");
+            selections.add((inlineOnly ? builder.substring(body, 1, selection.snippet()) : body).alias("body"));
+            if (!inlineOnly) {
+                selections.add(note.get("bodyData").alias("bodyData"));
+            }
+        }
+        if (selection.includes("dateCreated")) {
+            selections.add(note.get("dateCreated").alias("dateCreated"));
+        }
+        if (selection.includes("dateUpdated")) {
+            selections.add(note.get("dateUpdated").alias("dateUpdated"));
+        }
+
+        query.multiselect(selections)
+                .where(predicates(builder, note, filter, sortBy))
+                .orderBy(sortBy.equals("id")
+                        ? List.of(builder.asc(note.get("id")))
+                        : List.of(builder.asc(note.get(sortBy)), builder.asc(note.get("id"))));
+
+        return this.entityManager.createQuery(query)
+                .setFirstResult((int) offset)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(tuple -> toDTO(tuple, selection, inlineOnly))
+                .toList();
+    }
+
+    private static Predicate[] predicates(CriteriaBuilder builder, Root<Note> note, NoteFilter filter, String sortBy) {
+        val predicates = new ArrayList<Predicate>();
+        if (filter.query() != null) {
+            // like the query methods of NoteRepository, only the inline part of a compressed body is matched
+            val pattern = STR."%\{escapeLike(filter.query().toLowerCase(Locale.ROOT))}";
+            predicates.add(builder.or(
+                    builder.like(builder.lower(note.<String>get("title")), pattern, LIKE_ESCAPE),
+                    builder.like(builder.lower(note.<String>get("body")), pattern, LIKE_ESCAPE)
+            ));
+        }
+        if (filter.ids() != null) {
+            predicates.add(note.get("id").in(filter.ids()));
+        }
+        if (filter.after() != null) {
+            val id = note.<Long>get("id");
+            val afterId = filter.after().id();
+            if (sortBy.equals("title")) {
+                predicates.add(seek(builder, note.<String>get("title"), filter.after().key(), id, afterId));
+            } else {
+                predicates.add(seek(builder, note.<Date>get(sortBy), new Date(Long.parseLong(filter.after().key())), id, afterId));
+            }
+        }
+        return predicates.toArray(Predicate[]::new);
+    }
+
+    private static <T extends Comparable<? super T>> Predicate seek(CriteriaBuilder builder, Path<T> key, T afterKey, Path<Long> id, long afterId) {
+        return builder.or(
+                builder.greaterThan(key, afterKey),
+                builder.and(builder.equal(key, afterKey), builder.greaterThan(id, afterId))
+        );
+    }
+
+    private static NoteDTO toDTO(Tuple tuple, NoteSelection selection, boolean inlineOnly) {
+        val note = new PartialNoteDTO();
+        note.setId(tuple.get("id", Long.class));
+        note.setVersion(tuple.get("version", Long.class));
+        if (selection.includes("title")) {
+            note.setTitle(tuple.get("title", String.class));
+        }
+        if (selection.includes("body")) {
+            var body = tuple.get("body", String.class);
+            if (!inlineOnly) {
+                val bodyData = tuple.get("bodyData", String.class);
+                body = bodyData != null ? bodyData : body;
+                if (body != null && selection.snippet() != null && body.length() > selection.snippet()) {
+                    body = body.substring(0, selection.snippet());
+                }
+            }
+            note.setBody(body);
+        }
+        if (selection.includes("dateCreated")) {
+            note.setDateCreated(toISOString(tuple.get("dateCreated", Date.class)));
+        }
+        if (selection.includes("dateUpdated")) {
+            note.setDateUpdated(toISOString(tuple.get("dateUpdated", Date.class)));
+        }
+        return note;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -1,12 +1,23 @@
 package com.ota.api.note.repositories;
 
 import com.ota.api.note.models.entity.Note;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 /**
  * The NoteRepository interface provides access to the database for Note entities
  * and supports operations like saving, updating, and retrieving notes.
@@ -16,11 +27,12 @@ import org.springframework.stereotype.Repository;
  * @since 2024-04-28
  */
 @Repository
-public interface NoteRepository extends JpaRepository<Note, Long> {
+public interface NoteRepository extends JpaRepository<Note, Long>, NoteProjectionRepository {
     /**
      * Retrieves a page of Note entities based on the provided query string, allowing for pagination.
      *
-     * @param query    The query string used for filtering notes. It searches for matches in both title and body fields.
+     * @param query    The query string used for filtering notes. It searches for matches in both title and body fields,
+     *                 only in the inline part of a compressed body.
      * @param pageable The pagination information, including page index, page size, and sorting criteria.
      * @return A page of Note entities matching the query string, sorted and paginated as specified.
      */
@@ -31,4 +43,249 @@ public interface NoteRepository extends JpaRepository<Note, Long> {
             n.body ILIKE %?1
         """)
     Page<Note> findAllByQuery(String query, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Retrieves a slice of Note entities based on the provided query string, without counting them.
+     *
+     * @param query    The query string used for filtering notes, as in {@link #findAllByQuery(String, Pageable)}.
+     * @param pageable The pagination information, including page index, page size, and sorting criteria.
+     * @return A slice of Note entities matching the query string, which knows whether a next slice exists.
+     */
+    @Query("""
+        SELECT n
+        FROM Note n
+        WHERE n.title ILIKE %?1 OR
+            n.body ILIKE %?1
+        """)
+    Slice<Note> findSliceByQuery(String query, Pageable pageable);
+
+    /**
+     * Counts the Note entities matching the provided query string.
+     *
+     * @param query The query string used for filtering notes, as in {@link #findAllByQuery(String, Pageable)}.
+     * @return The number of matching notes.
+     */
+    @Query("""
+        SELECT COUNT(n)
+        FROM Note n
+        WHERE n.title ILIKE %?1 OR
+            n.body ILIKE %?1
+        """)
+    long countByQuery(String query);
+
+    /**
+     * Retrieves a slice of Note entities without counting them.
+     *
+     * @param pageable The pagination information, including page index, page size, and sorting criteria.
+     * @return A slice of Note entities, which knows whether a next slice exists.
+     */
+    Slice<Note> findSliceBy(Pageable pageable);
+
+    /**
+     * Retrieves the version of a note without loading the rest of it.
+     *
+     * @param id The id of the note.
+     * @return The version, or an empty optional if the note doesn't exist.
+     */
+    @Query("SELECT n.version FROM Note n WHERE n.id = ?1")
+    Optional<Long> findVersionById(Long id);
+
+    /**
+     * Retrieves the creation date and version of a note without loading the rest of it.
+     *
+     * @param id The id of the note.
+     * @return The creation date and version, or an empty optional if the note doesn't exist.
+     */
+    @Query("SELECT n.dateCreated AS dateCreated, n.version AS version FROM Note n WHERE n.id = ?1")
+    Optional<NoteHeader> findHeaderById(Long id);
+
+    /**
+     * Updates a note in a single statement, provided it is still at the given version.
+     * The version is incremented, the persistence context is bypassed so no entity is loaded.
+     *
+     * @param id             The id of the note.
+     * @param title          The new title.
+     * @param body           The new inline body, see {@link Note#setFullBody}.
+     * @param bodyCompressed Whether the whole body is in {@code bodyData}.
+     * @param bodyData       The new whole body when it doesn't fit inline, otherwise null.
+     * @param dateUpdated    The new modification date.
+     * @param version        The version the note is expected to be at.
+     * @return The number of updated notes, 0 if the note doesn't exist or is at another version.
+     */
+    @Modifying
+    @Query("""
+        UPDATE Note n
+        SET n.title = ?2,
+            n.body = ?3,
+            n.bodyCompressed = ?4,
+            n.bodyData = ?5,
+            n.dateUpdated = ?6,
+            n.version = n.version + 1
+        WHERE n.id = ?1 AND
+            n.version = ?7
+        """)
+    int updateIfVersion(Long id, String title, String body, boolean bodyCompressed, String bodyData, Date dateUpdated, Long version);
+
+    /**
+     * Deletes a note with a single statement, without loading it first.
+     *
+     * @param id The id of the note.
+     * @return The number of deleted notes, 0 if the note doesn't exist.
+     */
+    @Modifying
+    @Query("DELETE FROM Note n WHERE n.id = ?1")
+    int deleteNoteById(Long id);
+
+    /**
+     * Deletes the notes with the given ids with a single statement, without loading them first.
+     * The number of ids should be kept within the bind parameter limit of the database.
+     *
+     * @param ids The ids of the notes.
+     * @return The number of deleted notes.
+     */
+    @Modifying
+    @Query("DELETE FROM Note n WHERE n.id IN ?1")
+    int deleteNotesByIdIn(Collection<Long> ids);
+
+    /**
+     * Retrieves which of the given ids belong to an existing note, without loading the notes.
+     *
+     * @param ids The ids to look up.
+     * @return The ids of the existing notes.
+     */
+    @Query("SELECT n.id FROM Note n WHERE n.id IN ?1")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    /**
+     * Retrieves the first Note entities without counting them, used to start a keyset pagination.
+     *
+     * @param pageable The page size and sorting criteria, the page index is expected to be 0.
+     * @return The first Note entities sorted as specified.
+     */
+    List<Note> findAllBy(Pageable pageable);
+
+    /**
+     * Retrieves the Note entities following the given (title, id) position, ordered by title.
+     *
+     * @param title    The title of the last note of the previous page.
+     * @param id       The id of the last note of the previous page.
+     * @param pageable The page size, the page index is expected to be 0.
+     * @return The Note entities after the given position.
+     */
+    @Query("""
+        SELECT n
+        FROM Note n
+        WHERE n.title > ?1 OR
+            (n.title = ?1 AND n.id > ?2)
+        ORDER BY n.title, n.id
+        """)
+    List<Note> findAllAfterTitle(String title, Long id, Pageable pageable);
+
+    /**
+     * Retrieves the Note entities following the given (dateCreated, id) position, ordered by creation date.
+     *
+     * @param dateCreated The creation date of the last note of the previous page.
+     * @param id          The id of the last note of the previous page.
+     * @param pageable    The page size, the page index is expected to be 0.
+     * @return The Note entities after the given position.
+     */
+    @Query("""
+        SELECT n
+        FROM Note n
+        WHERE n.dateCreated > ?1 OR
+            (n.dateCreated = ?1 AND n.id > ?2)
+        ORDER BY n.dateCreated, n.id
+        """)
+    List<Note> findAllAfterDateCreated(Date dateCreated, Long id, Pageable pageable);
+
+    /**
+     * Retrieves the Note entities following the given (dateUpdated, id) position, ordered by update date.
+     *
+     * @param dateUpdated The update date of the last note of the previous page.
+     * @param id          The id of the last note of the previous page.
+     * @param pageable    The page size, the page index is expected to be 0.
+     * @return The Note entities after the given position.
+     */
+    @Query("""
+        SELECT n
+        FROM Note n
+        WHERE n.dateUpdated > ?1 OR
+            (n.dateUpdated = ?1 AND n.id > ?2)
+        ORDER BY n.dateUpdated, n.id
+        """)
+    List<Note> findAllAfterDateUpdated(Date dateUpdated, Long id, Pageable pageable);
+
+    /**
+     * Streams the Note entities modified within the given range with a forward-only cursor.
+     * The entities are read-only and fetched in chunks, the caller has to consume the stream within a transaction.
+     *
+     * @param from The inclusive lower bound of the modification date.
+     * @param to   The exclusive upper bound of the modification date.
+     * @return A stream of the Note entities ordered by id, to be closed after use.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        SELECT n
+        FROM Note n
+        WHERE n.dateUpdated >= ?1 AND
+            n.dateUpdated < ?2
+        ORDER BY n.id
+        """)
+    Stream<Note> streamAllUpdatedBetween(Date from, Date to);
+
+    /**
+     * Streams the Note entities modified within the given range and matching the query, as in
+     * {@link #streamAllUpdatedBetween(Date, Date)}. The query matches like {@link #countByQuery(String)},
+     * so only the inline part of a compressed body is searched.
+     *
+     * @param from  The inclusive lower bound of the modification date.
+     * @param to    The exclusive upper bound of the modification date.
+     * @param query The query string used for filtering notes.
+     * @return A stream of the matching Note entities ordered by id, to be closed after use.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        SELECT n
+        FROM Note n
+        WHERE n.dateUpdated >= ?1 AND
+            n.dateUpdated < ?2 AND
+            (n.title ILIKE %?3 OR
+            n.body ILIKE %?3)
+        ORDER BY n.id
+        """)
+    Stream<Note> streamAllUpdatedBetweenByQuery(Date from, Date to, String query);
+
+    /**
+     * Retrieves the whole compressed bodies of the given notes with a single query, so mapping a page of notes
+     * doesn't load the lazy body of each long note one at a time.
+     *
+     * @param ids The ids of the notes, the ones whose body fits inline are skipped.
+     * @return The ids and whole bodies of the notes whose body is compressed.
+     */
+    @Query("SELECT n.id AS id, n.bodyData AS bodyData FROM Note n WHERE n.id IN ?1 AND n.bodyCompressed = true")
+    List<NoteBodyData> findBodyDataByIdIn(Collection<Long> ids);
+
+    /**
+     * The whole body of a note whose body is compressed.
+     */
+    interface NoteBodyData {
+        Long getId();
+
+        String getBodyData();
+    }
+
+    /**
+     * The columns of a note needed to update it without loading it.
+     */
+    interface NoteHeader {
+        Date getDateCreated();
+
+        Long getVersion();
+    }
+}
@@ -0,0 +1,75 @@
+package com.ota.api.note.repositories;
+
+import com.ota.api.note.errors.SimpleError;
+import lombok.val;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The columns of a note read by a list query. The id and version are always read, as the page
+ * fingerprint and the conditional requests need them.
+ *
+ * @param fields  The fields to read besides the id and version, empty for every field.
+ * @param snippet The number of leading characters of the body to read, or null for the whole body.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+public record NoteSelection(Set<String> fields, Integer snippet) {
+    public static final List<String> SELECTABLE_FIELDS = List.of("id", "title", "body", "dateCreated", "dateUpdated", "version");
+
+    /**
+     * Parses the {@code fields} and {@code snippet} request parameters.
+     *
+     * @param fields  The comma-separated field names, empty for every field.
+     * @param snippet The length of the body snippet, or null.
+     * @return The selection.
+     * @throws SimpleError If a field is unknown or the snippet length isn't positive.
+     */
+    public static NoteSelection parse(String fields, Integer snippet) {
+        if (snippet != null && snippet <= 0) {
+            throw new SimpleError("Snippet length must be positive.");
+        }
+
+        val selected = new HashSet<String>();
+        if (fields != null) {
+            for (val field : fields.split(",")) {
+                val name = field.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                if (!SELECTABLE_FIELDS.contains(name)) {
+                    throw new SimpleError(STR."Field '\{name}' is not supported.");
+                }
+                selected.add(name);
+            }
+        }
+        return new NoteSelection(Set.copyOf(selected), snippet);
+    }
+
+    /**
+     * @return true if the selection leaves out a field or shortens the body.
+     */
+    public boolean isPartial() {
+        return !this.fields.isEmpty() || this.snippet != null;
+    }
+
+    public boolean includes(String field) {
+        return this.fields.isEmpty() || this.fields.contains(field);
+    }
+
+    /**
+     * @return A selection that also reads the given field, such as the sort column a cursor is made of.
+     */
+    public NoteSelection with(String field) {
+        if (includes(field)) {
+            return this;
+        }
+
+        val fields = new HashSet<>(this.fields);
+        fields.add(field);
+        return new NoteSelection(Set.copyOf(fields), this.snippet);
+    }
+}
@@ -0,0 +1,218 @@
+package com.ota.api.note.services;
+
+import com.ota.api.note.Config;
+import com.ota.api.note.models.dto.LogDTO;
+import com.ota.api.note.repositories.LogBatchRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous pipeline that takes log entries off the request thread.
+ * <p>
+ * Log entries are handed to a bounded queue which is drained by a single background writer,
+ * the writer groups them into JDBC batches of up to {@code batchSize} entries and waits at most
+ * {@code flushInterval} for a batch to fill up. When the queue is full the entry is dropped
+ * instead of blocking the request. On shutdown the remaining entries are drained before the
+ * datasource goes away. The pipeline only runs with the database log store, see {@link SegmentLogService} for the other one.
+ * <p>
+ * The writer only blocks on {@link BlockingQueue} and JDBC, both built on {@code java.util.concurrent} locks,
+ * so it can't pin the carrier thread when it runs virtual.
+ *
+ * @see LogBatchRepository
+ * @see Config.LogPipeline
+ *
+ * @author Miko Chu
+ * @since 2024-05-04
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.log-store", name = "type", havingValue = "jpa", matchIfMissing = true)
+public class LogPipeline {
+    private final LogBatchRepository logBatchRepository;
+    private final Config.LogPipeline settings;
+    private final BlockingQueue<LogDTO> queue;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final boolean virtualThreads;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public LogPipeline(
+            LogBatchRepository logBatchRepository,
+            Config config,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this(logBatchRepository, config.logPipeline(), virtualThreads);
+    }
+
+    LogPipeline(LogBatchRepository logBatchRepository, Config.LogPipeline settings) {
+        this(logBatchRepository, settings, false);
+    }
+
+    LogPipeline(LogBatchRepository logBatchRepository, Config.LogPipeline settings, boolean virtualThreads) {
+        this.logBatchRepository = logBatchRepository;
+        this.settings = settings;
+        this.virtualThreads = virtualThreads;
+        this.queue = new ArrayBlockingQueue<>(settings.capacity());
+    }
+
+    /**
+     * Starts the background writer, on a virtual thread when the application runs in virtual-thread mode.
+     */
+    @PostConstruct
+    public void start() {
+        this.running = true;
+        val builder = this.virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        this.writer = builder.name("log-pipeline-writer").start(this::run);
+    }
+
+    /**
+     * @return true if the background writer is running on a virtual thread.
+     */
+    boolean isVirtual() {
+        return this.writer != null && this.writer.isVirtual();
+    }
+
+    Thread writer() {
+        return this.writer;
+    }
+
+    /**
+     * Stops accepting new log entries and waits for the queued ones to be written.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        this.running = false;
+        this.writer.join(this.settings.shutdownTimeout().toMillis());
+
+        if (!this.queue.isEmpty()) {
+            log.warn("Log pipeline stopped with {} unwritten entries", this.queue.size());
+        }
+    }
+
+    /**
+     * Hands a log entry to the pipeline without blocking.
+     *
+     * @param logDTO The log entry to write.
+     * @return true if the entry was queued; false if it was dropped because the pipeline is full or stopped.
+     */
+    public boolean offer(LogDTO logDTO) {
+        if (this.running && this.queue.offer(logDTO)) {
+            this.enqueued.incrementAndGet();
+            return true;
+        }
+
+        this.dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Takes a snapshot of the pipeline counters.
+     *
+     * @return The current counters of the pipeline.
+     */
+    public Stats stats() {
+        return new Stats(this.enqueued.get(), this.written.get(), this.dropped.get(), this.queue.size());
+    }
+
+    private void run() {
+        val batch = new ArrayList<LogDTO>(this.settings.batchSize());
+
+        while (this.running || !this.queue.isEmpty()) {
+            try {
+                fill(batch);
+            } catch (InterruptedException e) {
+                // every further poll would throw right away, so write what's left without waiting and exit
+                this.running = false;
+                drain(batch);
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            flush(batch);
+        }
+    }
+
+    /**
+     * Writes the collected and the queued entries in batches, without blocking on the queue.
+     */
+    private void drain(List<LogDTO> batch) {
+        do {
+            this.queue.drainTo(batch, this.settings.batchSize() - batch.size());
+            flush(batch);
+        } while (!this.queue.isEmpty());
+    }
+
+    /**
+     * Waits for the first entry, then keeps collecting entries until either the batch is full
+     * or the flush interval since the first entry has elapsed.
+     */
+    private void fill(List<LogDTO> batch) throws InterruptedException {
+        val flushIntervalNanos = this.settings.flushInterval().toNanos();
+        val first = this.queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+
+        batch.add(first);
+        val deadline = System.nanoTime() + flushIntervalNanos;
+
+        while (batch.size() < this.settings.batchSize()) {
+            if (this.queue.drainTo(batch, this.settings.batchSize() - batch.size()) > 0) {
+                continue;
+            }
+
+            val remaining = deadline - System.nanoTime();
+            val next = remaining > 0 ? this.queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<LogDTO> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            this.logBatchRepository.insertAll(batch);
+            this.written.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            this.dropped.addAndGet(batch.size());
+            log.error("Failed to write {} log entries", batch.size(), e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * A snapshot of the pipeline counters.
+     *
+     * @param enqueued The number of entries accepted by the pipeline.
+     * @param written  The number of entries written to the database.
+     * @param dropped  The number of entries rejected because the pipeline was full, or lost because the write failed.
+     * @param queued   The number of entries currently waiting to be written.
+     */
+    public record Stats(long enqueued, long written, long dropped, int queued) {
+    }
+}
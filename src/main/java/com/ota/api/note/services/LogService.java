@@ -1,7 +1,17 @@
 package com.ota.api.note.services;
 
 import com.ota.api.note.models.dto.LogDTO;
+import com.ota.api.note.models.dto.LogQueryParamsDTO;
+import com.ota.api.note.models.dto.PaginatedDTO;
 
 public interface LogService {
     void write(LogDTO log);
+
+    /**
+     * Finds the logs matching the filters of the request, oldest first.
+     *
+     * @param params The filters, page size and cursor.
+     * @return A keyset-paginated page of logs, without totals.
+     */
+    PaginatedDTO<LogDTO> find(LogQueryParamsDTO params);
 }
@@ -2,36 +2,48 @@ package com.ota.api.note.services;
 
 import com.ota.api.note.mapper.LogMapper;
 import com.ota.api.note.models.dto.LogDTO;
-import com.ota.api.note.models.entity.Log;
+import com.ota.api.note.models.dto.LogQueryParamsDTO;
+import com.ota.api.note.models.dto.PaginatedDTO;
+import com.ota.api.note.repositories.LogCriteria;
 import com.ota.api.note.repositories.LogRepository;
 import lombok.val;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@ConditionalOnProperty(prefix = "app.log-store", name = "type", havingValue = "jpa", matchIfMissing = true)
 public class LogServiceImpl implements LogService{
+    private final LogPipeline logPipeline;
     private final LogRepository logRepository;
     private final LogMapper logMapper;
 
     @Autowired
-    public LogServiceImpl(LogRepository logRepository, LogMapper logMapper) {
+    public LogServiceImpl(LogPipeline logPipeline, LogRepository logRepository, LogMapper logMapper) {
+        this.logPipeline = logPipeline;
         this.logRepository = logRepository;
         this.logMapper = logMapper;
     }
 
+    /**
+     * Hands the log entry to the {@link LogPipeline}, the actual insert happens in the background
+     * so the request thread doesn't pay for it.
+     *
+     * @param data The log entry to write.
+     */
     @Override
     public void write(LogDTO data) {
-        val log = this.logRepository.save(Log.builder()
-                .tracingId(data.getTracingId())
-                .ipAddress(data.getIpAddress())
-                .method(data.getMethod())
-                .path(data.getPath())
-                .requestBody(data.getRequestBody())
-                .status(data.getStatus())
-                .responseBody(data.getResponseBody())
-                .build()
-        );
+        this.logPipeline.offer(data);
+    }
 
-        this.logMapper.toDTO(log);
+    @Override
+    @Transactional(readOnly = true)
+    public PaginatedDTO<LogDTO> find(LogQueryParamsDTO params) {
+        val criteria = LogCriteria.of(params);
+        val logs = this.logRepository.findByCriteria(criteria, criteria.pageSize() + 1).stream()
+                .map(this.logMapper::toDTO)
+                .toList();
+        return criteria.page(logs);
     }
 }
@@ -0,0 +1,112 @@
+package com.ota.api.note.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ota.api.note.Config;
+import com.ota.api.note.models.dto.NoteDTO;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Size-bounded, in-process cache of {@link NoteDTO} keyed by the note id.
+ * <p>
+ * The cache is backed by Caffeine, which evicts with Window TinyLFU: a note only takes the place
+ * of a cached one when it has been requested more frequently, so a burst of one-off reads can't
+ * push the hot notes out. {@link NoteServiceImpl} writes the notes through on create and update,
+ * and invalidates them on delete.
+ *
+ * @see Config.NoteCache
+ *
+ * @author Miko Chu
+ * @since 2024-05-07
+ */
+@Component
+public class NoteCache {
+    private final Cache<Long, NoteDTO> cache;
+    private final boolean enabled;
+
+    @Autowired
+    public NoteCache(Config config) {
+        this(config.noteCache());
+    }
+
+    NoteCache(Config.NoteCache settings) {
+        this.enabled = settings.enabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.maximumSize())
+                .expireAfterWrite(settings.expireAfterWrite())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached note, loading it when absent. Concurrent loads of the same note are collapsed into one.
+     *
+     * @param id     The id of the note.
+     * @param loader Loads the note from the database, returns an empty optional if it doesn't exist.
+     * @return The note, or an empty optional if it doesn't exist.
+     */
+    public Optional<NoteDTO> get(Long id, Function<Long, Optional<NoteDTO>> loader) {
+        if (!this.enabled) {
+            return loader.apply(id);
+        }
+
+        return Optional.ofNullable(this.cache.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    /**
+     * Returns the cached note without loading it.
+     *
+     * @param id The id of the note.
+     * @return The cached note, or an empty optional if it isn't cached.
+     */
+    public Optional<NoteDTO> getIfPresent(Long id) {
+        return Optional.ofNullable(this.cache.getIfPresent(id));
+    }
+
+    /**
+     * Stores the latest version of a note.
+     *
+     * @param note The note to store.
+     */
+    public void put(NoteDTO note) {
+        if (this.enabled) {
+            this.cache.put(note.getId(), note);
+        }
+    }
+
+    /**
+     * Removes a note from the cache.
+     *
+     * @param id The id of the note.
+     */
+    public void invalidate(Long id) {
+        this.cache.invalidate(id);
+    }
+
+    /**
+     * Takes a snapshot of the cache statistics.
+     *
+     * @return The current statistics of the cache.
+     */
+    public Stats stats() {
+        val stats = this.cache.stats();
+        return new Stats(stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate(), this.cache.estimatedSize());
+    }
+
+    /**
+     * A snapshot of the cache statistics.
+     *
+     * @param hits      The number of reads served from the cache.
+     * @param misses    The number of reads that went to the database.
+     * @param evictions The number of notes evicted because of the size bound or the expiry.
+     * @param hitRate   The ratio of reads served from the cache.
+     * @param size      The approximate number of cached notes.
+     */
+    public record Stats(long hits, long misses, long evictions, double hitRate, long size) {
+    }
+}
@@ -0,0 +1,113 @@
+package com.ota.api.note.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ota.api.note.Config;
+import com.ota.api.note.repositories.NoteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * Serves the note counts of the {@code cached} count strategy without a COUNT query per request.
+ * <p>
+ * The total number of notes is an O(1) counter, loaded once at startup and adjusted by
+ * {@link NoteServiceImpl} once a create or delete commits, so a rolled back write never shifts it.
+ * It is reset whenever an exact count is computed anyway. The counts of filtered listings are cached per query,
+ * and any committed write invalidates them all since it can change what matches. A count computed while
+ * another write is committing can miss that write until the next write or the cache expiry.
+ *
+ * @see Config.NoteCount
+ *
+ * @author Miko Chu
+ * @since 2024-05-16
+ */
+@Component
+public class NoteCounter {
+    private static final long UNKNOWN = -1;
+
+    private final NoteRepository noteRepository;
+    private final Cache<String, Long> queryCounts;
+    private final AtomicLong total = new AtomicLong(UNKNOWN);
+
+    @Autowired
+    public NoteCounter(NoteRepository noteRepository, Config config) {
+        this.noteRepository = noteRepository;
+        this.queryCounts = Caffeine.newBuilder()
+                .maximumSize(config.noteCount().maximumQueries())
+                .expireAfterWrite(config.noteCount().expireAfterWrite())
+                .build();
+    }
+
+    /**
+     * Loads the total number of notes once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        this.total.set(this.noteRepository.count());
+    }
+
+    /**
+     * @return The total number of notes.
+     */
+    public long total() {
+        long value = this.total.get();
+        if (value == UNKNOWN) {
+            this.total.compareAndSet(UNKNOWN, this.noteRepository.count());
+            value = this.total.get();
+        }
+        return value;
+    }
+
+    /**
+     * Resets the total number of notes to an exact count computed elsewhere.
+     *
+     * @param count The exact number of notes.
+     */
+    public void reset(long count) {
+        this.total.set(count);
+    }
+
+    /**
+     * Returns the cached number of notes matching the query, counting them on a miss.
+     *
+     * @param query   The query of the listing.
+     * @param counter Counts the matching notes in the database.
+     * @return The number of matching notes.
+     */
+    public long countMatching(String query, ToLongFunction<String> counter) {
+        return this.queryCounts.get(query, counter::applyAsLong);
+    }
+
+    /**
+     * @param count The number of created notes.
+     */
+    public void created(int count) {
+        adjust(count);
+    }
+
+    /**
+     * Invalidates the cached counts after notes were updated.
+     */
+    public void updated() {
+        this.queryCounts.invalidateAll();
+    }
+
+    /**
+     * @param count The number of deleted notes.
+     */
+    public void deleted(int count) {
+        adjust(-count);
+    }
+
+    private void adjust(long delta) {
+        if (delta != 0) {
+            this.total.updateAndGet(value -> value == UNKNOWN ? value : value + delta);
+            this.queryCounts.invalidateAll();
+        }
+    }
+}
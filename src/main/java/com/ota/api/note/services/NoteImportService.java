@@ -0,0 +1,10 @@
+package com.ota.api.note.services;
+
+import com.ota.api.note.models.dto.ImportResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface NoteImportService {
+    ImportResultDTO importAll(InputStream inputStream) throws IOException;
+}
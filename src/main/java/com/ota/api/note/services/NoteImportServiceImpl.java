@@ -0,0 +1,134 @@
+package com.ota.api.note.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ota.api.note.Config;
+import com.ota.api.note.models.dto.ImportErrorDTO;
+import com.ota.api.note.models.dto.ImportResultDTO;
+import com.ota.api.note.models.dto.NoteDTO;
+import com.ota.api.note.models.form.NoteForm;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports notes from a newline-delimited JSON stream or a JSON array.
+ * <p>
+ * The input is parsed incrementally, one record at a time, so only the current chunk of notes
+ * is held in memory regardless of the size of the input. Every record is validated with the
+ * {@link NoteForm} rules, and the valid ones are committed in chunks of {@code chunkSize} notes.
+ *
+ * @see Config.NoteImport
+ *
+ * @author Miko Chu
+ * @since 2024-05-11
+ */
+@Service
+public class NoteImportServiceImpl implements NoteImportService {
+    private final NoteService noteService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final Config.NoteImport settings;
+
+    @Autowired
+    public NoteImportServiceImpl(NoteService noteService, ObjectMapper objectMapper, Validator validator, Config config) {
+        this.noteService = noteService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.settings = config.noteImport();
+    }
+
+    @Override
+    public ImportResultDTO importAll(InputStream inputStream) throws IOException {
+        val result = ImportResultDTO.builder()
+                .errors(new ArrayList<>())
+                .build();
+        val chunk = new ArrayList<NoteDTO>(this.settings.chunkSize());
+
+        try (JsonParser parser = this.objectMapper.getFactory().createParser(inputStream)) {
+            var token = parser.nextToken();
+            // a JSON array is read element by element, otherwise the records are a sequence of root values
+            val isArray = token == JsonToken.START_ARRAY;
+            if (isArray) {
+                token = parser.nextToken();
+            }
+
+            long index = 0;
+            while (token != null && token != JsonToken.END_ARRAY) {
+                val line = parser.currentTokenLocation().getLineNr();
+                val record = parser.<JsonNode>readValueAsTree();
+                val errors = validate(record);
+
+                if (errors.isEmpty()) {
+                    chunk.add(NoteDTO.builder()
+                            .title(record.get("title").asText())
+                            .body(record.get("body").asText())
+                            .build());
+                    if (chunk.size() >= this.settings.chunkSize()) {
+                        commit(chunk, result);
+                    }
+                } else {
+                    reject(result, index, line, errors);
+                }
+
+                index++;
+                token = parser.nextToken();
+            }
+        } catch (StreamReadException e) {
+            result.setAborted(true);
+            val location = e.getLocation();
+            reject(result, -1, location == null ? -1 : location.getLineNr(), List.of(STR."Malformed JSON: \{e.getOriginalMessage()}"));
+        }
+
+        commit(chunk, result);
+        return result;
+    }
+
+    /**
+     * Binds the record to a {@link NoteForm} and validates it.
+     *
+     * @return The validation errors, empty if the record is valid.
+     */
+    private List<String> validate(JsonNode record) {
+        if (record == null || !record.isObject()) {
+            return List.of("A note must be a JSON object");
+        }
+
+        try {
+            val noteForm = this.objectMapper.treeToValue(record, NoteForm.class);
+            return this.validator.validate(noteForm).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .toList();
+        } catch (JsonProcessingException e) {
+            return List.of(e.getOriginalMessage());
+        }
+    }
+
+    private void commit(List<NoteDTO> chunk, ImportResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        this.noteService.createAll(chunk);
+        result.setAccepted(result.getAccepted() + chunk.size());
+        chunk.clear();
+    }
+
+    private void reject(ImportResultDTO result, long index, long line, List<String> errors) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < this.settings.maxReportedErrors()) {
+            result.getErrors().add(new ImportErrorDTO(index, line, errors));
+        }
+    }
+}
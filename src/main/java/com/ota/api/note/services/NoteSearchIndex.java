@@ -0,0 +1,272 @@
+package com.ota.api.note.services;
+
+import com.ota.api.note.models.entity.Note;
+import com.ota.api.note.repositories.NoteRepository;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory inverted index over the title and body of the notes.
+ * <p>
+ * Every term maps to a posting list of the note ids containing it together with the term frequency,
+ * so a search only visits the notes that actually contain the query terms. Each query term is matched
+ * as a prefix of the indexed terms, and a note has to match every query term to be part of the result.
+ * Matches are scored with Okapi BM25.
+ * <p>
+ * Every note also keeps its sort keys (title, creation and update dates) so the matches can be ordered
+ * and paged here, and only the ids of the requested page are read from the database.
+ * <p>
+ * The index is kept up to date incrementally by {@link NoteServiceImpl} and rebuilt from the database
+ * once the application is ready; until then {@link #isReady()} returns false.
+ *
+ * @author Miko Chu
+ * @since 2024-05-05
+ */
+@Slf4j
+@Component
+public class NoteSearchIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    private final NoteRepository noteRepository;
+    private final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+    private final AtomicLong totalLength = new AtomicLong();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean ready;
+
+    @Autowired
+    public NoteSearchIndex(NoteRepository noteRepository) {
+        this.noteRepository = noteRepository;
+    }
+
+    /**
+     * Loads every note from the database into the index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        var pageable = PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id"));
+        while (true) {
+            val slice = this.noteRepository.findAll(pageable);
+            // the compressed bodies are lazy, so the ones of the page are read with one query
+            val compressed = slice.stream()
+                    .filter(Note::isBodyCompressed)
+                    .map(Note::getId)
+                    .toList();
+            val bodies = new HashMap<Long, String>();
+            if (!compressed.isEmpty()) {
+                this.noteRepository.findBodyDataByIdIn(compressed)
+                        .forEach(data -> bodies.put(data.getId(), data.getBodyData()));
+            }
+            slice.forEach(note -> index(note.getId(), note.getTitle(), bodies.getOrDefault(note.getId(), note.getBody()),
+                    note.getDateCreated(), note.getDateUpdated()));
+            if (!slice.hasNext()) {
+                break;
+            }
+            pageable = pageable.next();
+        }
+
+        this.ready = true;
+        log.info("Search index built with {} notes and {} terms", this.documents.size(), this.postings.size());
+    }
+
+    /**
+     * @return true once the index holds every note of the database.
+     */
+    public boolean isReady() {
+        return this.ready;
+    }
+
+    /**
+     * Adds or replaces the terms of a note.
+     *
+     * @param id          The id of the note.
+     * @param title       The title of the note.
+     * @param body        The body of the note.
+     * @param dateCreated The creation date of the note, kept to sort the matches.
+     * @param dateUpdated The update date of the note, kept to sort the matches.
+     */
+    public void index(long id, String title, String body, Date dateCreated, Date dateUpdated) {
+        val frequencies = new HashMap<String, Integer>();
+        var length = 0;
+        for (val text : new String[] { title, body }) {
+            for (val term : tokenize(text)) {
+                frequencies.merge(term, 1, Integer::sum);
+                length++;
+            }
+        }
+
+        this.writeLock.lock();
+        try {
+            removeUnlocked(id);
+            frequencies.forEach((term, frequency) -> this.postings
+                    .computeIfAbsent(term, key -> new ConcurrentHashMap<>())
+                    .put(id, frequency));
+            this.documents.put(id, new Document(frequencies.keySet(), length,
+                    title == null ? "" : title, millis(dateCreated), millis(dateUpdated)));
+            this.totalLength.addAndGet(length);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes a note from the index.
+     *
+     * @param id The id of the note.
+     */
+    public void remove(long id) {
+        this.writeLock.lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Finds the notes matching every term of the query.
+     *
+     * @param query The free text query.
+     * @return The matching notes with their BM25 score and sort keys, in no particular order.
+     */
+    public List<Match> search(String query) {
+        val terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        val documentCount = Math.max(this.documents.size(), 1);
+        val averageLength = Math.max((double) this.totalLength.get() / documentCount, 1d);
+
+        Map<Long, Double> scores = null;
+        for (val term : terms) {
+            val termScores = new HashMap<Long, Double>();
+            for (val entry : this.postings.tailMap(term).entrySet()) {
+                if (!entry.getKey().startsWith(term)) {
+                    break;
+                }
+
+                val posting = entry.getValue();
+                val idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                posting.forEach((id, frequency) -> {
+                    val document = this.documents.get(id);
+                    if (document == null) {
+                        return;
+                    }
+                    val norm = K1 * (1 - B + B * document.length() / averageLength);
+                    termScores.merge(id, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                });
+            }
+
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((id, score) -> score + termScores.get(id));
+            }
+
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        val matches = new ArrayList<Match>(scores.size());
+        for (val entry : scores.entrySet()) {
+            val document = this.documents.get(entry.getKey());
+            if (document != null) {
+                matches.add(new Match(entry.getKey(), entry.getValue(),
+                        document.title(), document.dateCreated(), document.dateUpdated()));
+            }
+        }
+        return matches;
+    }
+
+    private void removeUnlocked(long id) {
+        val document = this.documents.remove(id);
+        if (document == null) {
+            return;
+        }
+
+        for (val term : document.terms()) {
+            this.postings.computeIfPresent(term, (key, posting) -> {
+                posting.remove(id);
+                return posting.isEmpty() ? null : posting;
+            });
+        }
+        this.totalLength.addAndGet(-document.length());
+    }
+
+    /**
+     * Splits a text into lower-cased terms made of letters and digits.
+     *
+     * @param text The text to split, can be null.
+     * @return The terms of the text in order of appearance.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+
+        val terms = new ArrayList<String>();
+        var start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            val isTermChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isTermChar && start < 0) {
+                start = i;
+            } else if (!isTermChar && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static long millis(Date date) {
+        return date == null ? 0 : date.getTime();
+    }
+
+    private record Document(Set<String> terms, int length, String title, long dateCreated, long dateUpdated) {
+    }
+
+    /**
+     * A note matching a search.
+     *
+     * @param id          The id of the note.
+     * @param score       The BM25 relevance of the note, higher is more relevant.
+     * @param title       The title of the note.
+     * @param dateCreated The creation date of the note, in epoch milliseconds.
+     * @param dateUpdated The update date of the note, in epoch milliseconds.
+     */
+    public record Match(long id, double score, String title, long dateCreated, long dateUpdated) {
+        /**
+         * Orders matches like the database orders the notes, with the id as a tie-breaker
+         * so a page boundary never falls between equal sort keys differently from one request to the next.
+         *
+         * @param sortBy The sorting criteria, one of title, dateCreated, dateUpdated or relevance.
+         * @return The comparator of the sorting criteria.
+         */
+        public static Comparator<Match> order(String sortBy) {
+            Comparator<Match> order = switch (sortBy) {
+                case "dateCreated" -> Comparator.comparingLong(Match::dateCreated);
+                case "dateUpdated" -> Comparator.comparingLong(Match::dateUpdated);
+                case "relevance" -> Comparator.comparingDouble(Match::score).reversed();
+                default -> Comparator.comparing(Match::title);
+            };
+            return order.thenComparingLong(Match::id);
+        }
+    }
+}
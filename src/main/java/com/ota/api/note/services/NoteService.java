@@ -1,14 +1,27 @@
 package com.ota.api.note.services;
 
+import com.ota.api.note.models.dto.ExportParamsDTO;
 import com.ota.api.note.models.dto.NoteDTO;
 import com.ota.api.note.models.dto.PaginateParamsDTO;
 import com.ota.api.note.models.dto.PaginatedDTO;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
 public interface NoteService {
     NoteDTO create(NoteDTO noteDTO);
     NoteDTO findOne(Long id);
+    Optional<Long> findVersion(Long id);
     NoteDTO update(NoteDTO noteDTO);
     PaginatedDTO<NoteDTO> findAll(PaginateParamsDTO paginateParams);
     void deleteOne(Long id);
+    List<NoteDTO> createAll(List<NoteDTO> noteDTOs);
+    Map<Long, NoteDTO> updateAll(List<NoteDTO> noteDTOs);
+    Set<Long> deleteAll(Collection<Long> ids);
+    void exportAll(ExportParamsDTO exportParams, Consumer<NoteDTO> consumer);
 }
 
@@ -1,70 +1,190 @@
 package com.ota.api.note.services;
 
+import com.ota.api.note.Config;
+import com.ota.api.note.datasource.ReadWriteRoutingDataSource;
 import com.ota.api.note.errors.NotFoundError;
+import com.ota.api.note.errors.PreconditionFailedError;
 import com.ota.api.note.errors.SimpleError;
 import com.ota.api.note.mapper.NoteMapper;
+import com.ota.api.note.models.dto.ExportParamsDTO;
 import com.ota.api.note.models.dto.NoteDTO;
 import com.ota.api.note.models.dto.PaginateParamsDTO;
 import com.ota.api.note.models.dto.PaginatedDTO;
 import com.ota.api.note.models.entity.Note;
+import com.ota.api.note.repositories.NoteFilter;
 import com.ota.api.note.repositories.NoteRepository;
+import com.ota.api.note.repositories.NoteSelection;
+import com.ota.api.note.spring.KeysetCursor;
 import com.ota.api.note.spring.PageRequestBuilder;
+import jakarta.persistence.EntityManager;
 import lombok.val;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Arrays;
-import java.util.Date;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class NoteServiceImpl implements NoteService {
     private final NoteRepository noteRepository;
     private final NoteMapper noteMapper;
+    private final NoteSearchIndex searchIndex;
+    private final NoteCache noteCache;
+    private final NoteCounter noteCounter;
+    private final EntityManager entityManager;
+    private final TransactionTemplate primaryRead;
+    private final int inlineBodySize;
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+    private static final int DELETE_CHUNK_SIZE = 1000;
+    private static final int EXPORT_BATCH_SIZE = 500;
+
     private final String[] sortableFields = {
-            "title", "dateCreated", "dateUpdated"
+            "title", "dateCreated", "dateUpdated", "relevance"
+    };
+    private final String[] countStrategies = {
+            "exact", "cached", "none"
     };
 
     @Autowired
-    public NoteServiceImpl(NoteRepository noteRepository, NoteMapper noteMapper) {
+    public NoteServiceImpl(
+            NoteRepository noteRepository,
+            NoteMapper noteMapper,
+            NoteSearchIndex searchIndex,
+            NoteCache noteCache,
+            NoteCounter noteCounter,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            Config config
+    ) {
         this.noteRepository = noteRepository;
         this.noteMapper = noteMapper;
+        this.searchIndex = searchIndex;
+        this.noteCache = noteCache;
+        this.noteCounter = noteCounter;
+        this.entityManager = entityManager;
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.primaryRead.setName(ReadWriteRoutingDataSource.PRIMARY_READ);
+        this.primaryRead.setReadOnly(true);
+        this.primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.inlineBodySize = Math.min(config.noteStorage().inlineBodySize(), Note.MAX_INLINE_BODY_LENGTH);
     }
 
+    /**
+     * Finds a note, from the cache if possible. A cache miss is read from the primary in its own transaction,
+     * since the cache is shared by every client and a replica lagging behind a write would put back the note
+     * the write just changed or deleted.
+     */
     @Override
     public NoteDTO findOne(Long id) {
-        return this.noteRepository.findById(id)
-                .map(noteMapper::toDTO)
+        return this.noteCache.get(id, key -> this.primaryRead.execute(status -> this.noteRepository.findById(key).map(noteMapper::toDTO)))
                 .orElseThrow(() -> new NotFoundError("Note not found"));
     }
 
+    /**
+     * Finds the version of a note, from the cache if possible, otherwise
+     * by reading that single column so the note doesn't have to be loaded.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersion(Long id) {
+        return this.noteCache.getIfPresent(id)
+                .map(NoteDTO::getVersion)
+                .or(() -> this.noteRepository.findVersionById(id));
+    }
+
     public NoteDTO create(NoteDTO noteDTO) {
         val note = Note.builder()
                 .title(noteDTO.getTitle())
-                .body(noteDTO.getBody())
                 .build();
-        return noteMapper.toDTO(noteRepository.save(note));
+        note.setFullBody(noteDTO.getBody(), this.inlineBodySize);
+        val created = afterWrite(noteRepository.save(note));
+        afterCommit(() -> this.noteCounter.created(1));
+        return created;
     }
 
+    /**
+     * Updates a note with a single conditional UPDATE statement instead of loading and merging it.
+     * <p>
+     * When {@code noteDTO.version} is set, the note is only updated if it is still at that version,
+     * otherwise the update applies to the latest version. The creation date and current version
+     * are taken from the cache when the note is cached, otherwise they are read with one extra query.
+     *
+     * @param noteDTO The id, title, body and optionally the expected version of the note.
+     * @return The updated note.
+     * @throws NotFoundError           If the note doesn't exist.
+     * @throws PreconditionFailedError If the note isn't at the expected version.
+     */
     @Override
+    @Transactional
     public NoteDTO update(NoteDTO noteDTO) {
-        val dateCreated = this.noteRepository.findById(noteDTO.getId())
-                .map(Note::getDateCreated)
-                .orElseThrow(() -> new NotFoundError("Note not found"));
+        val expectedVersion = noteDTO.getVersion();
+        val cached = this.noteCache.getIfPresent(noteDTO.getId())
+                .filter(note -> note.getVersion() != null);
+
+        if (cached.isPresent()) {
+            val version = expectedVersion != null ? expectedVersion : cached.get().getVersion();
+            val dateCreated = Date.from(Instant.parse(cached.get().getDateCreated()));
+            val updated = updateIfVersion(noteDTO, dateCreated, version);
+            if (updated.isPresent()) {
+                return afterWrite(updated.get());
+            }
+        }
 
+        // the cache is missing or stale, read the current version and retry if a concurrent update gets in between
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            val header = this.noteRepository.findHeaderById(noteDTO.getId())
+                    .orElseThrow(() -> new NotFoundError("Note not found"));
+            if (expectedVersion != null && !expectedVersion.equals(header.getVersion())) {
+                throw new PreconditionFailedError("Note has been modified since the given version.");
+            }
+
+            val updated = updateIfVersion(noteDTO, header.getDateCreated(), header.getVersion());
+            if (updated.isPresent()) {
+                return afterWrite(updated.get());
+            }
+        }
+        throw new PreconditionFailedError("Note is being modified concurrently, try again.");
+    }
+
+    /**
+     * Runs the conditional update.
+     *
+     * @return The updated note, or an empty optional if the note wasn't at the given version.
+     */
+    private Optional<Note> updateIfVersion(NoteDTO noteDTO, Date dateCreated, long version) {
         val note = Note.builder()
                 .id(noteDTO.getId())
                 .title(noteDTO.getTitle())
-                .body(noteDTO.getBody())
                 .dateCreated(dateCreated)
                 .dateUpdated(new Date())
+                .version(version + 1)
                 .build();
+        note.setFullBody(noteDTO.getBody(), this.inlineBodySize);
 
-        val saved = noteRepository.save(note);
-        return this.noteMapper.toDTO(saved);
+        val rows = this.noteRepository.updateIfVersion(note.getId(), note.getTitle(), note.getBody(),
+                note.isBodyCompressed(), note.getBodyData(), note.getDateUpdated(), version);
+        if (rows == 0) {
+            return Optional.empty();
+        }
+
+        afterCommit(this.noteCounter::updated);
+        return Optional.of(note);
     }
 
+    @Transactional(readOnly = true)
     public PaginatedDTO<NoteDTO> findAll(PaginateParamsDTO paginateParams) {
         val sortBy = paginateParams.getSortBy("title");
 
@@ -72,28 +192,513 @@ public class NoteServiceImpl implements NoteService {
             throw new SimpleError(STR."Sorting '\{sortBy}' column is not supported.");
         }
 
+        val countStrategy = paginateParams.getCount();
+        if (!Arrays.asList(countStrategies).contains(countStrategy)) {
+            throw new SimpleError(STR."Count '\{countStrategy}' is not supported.");
+        }
+
+        val selection = NoteSelection.parse(paginateParams.getFields(), paginateParams.getSnippet());
+        if (selection.isPartial()) {
+            return findAllProjected(sortBy, countStrategy, selection, paginateParams);
+        }
+
+        if (paginateParams.isCursorMode()) {
+            return findAllByCursor(sortBy, paginateParams);
+        }
+
+        val query = paginateParams.getQuery();
+        if (!query.isEmpty() && this.searchIndex.isReady()) {
+            return search(query, sortBy, paginateParams);
+        }
+        if (sortBy.equals("relevance")) {
+            throw new SimpleError("Sorting by 'relevance' requires a query.");
+        }
+
         val pagination = new PageRequestBuilder()
                 .pageNumber(paginateParams.getPage())
                 .pageSize(paginateParams.getPageSize())
                 .sort(Sort.by(sortBy).ascending())
                 .build();
 
-        val page = this.noteRepository.findAllByQuery(paginateParams.getQuery(), pagination);
-        val notes = page.getContent().stream()
-                .map(noteMapper::toDTO)
-                .collect(Collectors.toList());
+        if (countStrategy.equals("exact")) {
+            val page = query.isEmpty()
+                    ? this.noteRepository.findAll(pagination)
+                    : this.noteRepository.findAllByQuery(query, pagination);
+            if (query.isEmpty()) {
+                this.noteCounter.reset(page.getTotalElements());
+            }
+            return paginated(paginateParams, toDTOs(page.getContent()), page.getTotalElements(), countStrategy, page.hasNext());
+        }
+
+        // the other strategies read a slice, which fetches one extra row instead of running a COUNT query
+        val slice = query.isEmpty()
+                ? this.noteRepository.findSliceBy(pagination)
+                : this.noteRepository.findSliceByQuery(query, pagination);
+        if (countStrategy.equals("none")) {
+            return paginated(paginateParams, toDTOs(slice.getContent()), -1, countStrategy, slice.hasNext());
+        }
 
+        val totalItems = query.isEmpty()
+                ? this.noteCounter.total()
+                : this.noteCounter.countMatching(query, this.noteRepository::countByQuery);
+        return paginated(paginateParams, toDTOs(slice.getContent()), totalItems, countStrategy, slice.hasNext());
+    }
+
+    private PaginatedDTO<NoteDTO> paginated(
+            PaginateParamsDTO paginateParams,
+            List<NoteDTO> notes,
+            long totalItems,
+            String countStrategy,
+            boolean hasNext
+    ) {
+        val pageSize = paginateParams.getPageSize();
         return PaginatedDTO.<NoteDTO>builder()
-                .totalPages(page.getTotalPages())
+                .totalPages(totalItems < 0 ? -1 : (int) ((totalItems + pageSize - 1) / pageSize))
                 .pageIndex(paginateParams.getPage())
-                .totalItems(page.getTotalElements())
+                .totalItems(totalItems)
+                .countStrategy(countStrategy)
+                .hasNext(hasNext)
                 .items(notes)
                 .build();
     }
 
+    /**
+     * Maps the notes, reading the compressed bodies among them with one query.
+     */
+    private List<NoteDTO> toDTOs(List<Note> notes) {
+        val compressed = notes.stream()
+                .filter(Note::isBodyCompressed)
+                .map(Note::getId)
+                .toList();
+        val bodies = compressed.isEmpty() ? Map.<Long, String>of() : this.noteRepository.findBodyDataByIdIn(compressed).stream()
+                .collect(Collectors.toMap(NoteRepository.NoteBodyData::getId, NoteRepository.NoteBodyData::getBodyData));
+
+        return notes.stream()
+                .map(note -> this.noteMapper.toDTO(note, note.isBodyCompressed()
+                        ? bodies.getOrDefault(note.getId(), note.getBody())
+                        : note.getBody()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Looks up the matching notes in the {@link NoteSearchIndex}, which also orders and pages them,
+     * so only the notes of the requested page are read from the database.
+     */
+    private PaginatedDTO<NoteDTO> search(String query, String sortBy, PaginateParamsDTO paginateParams) {
+        val matches = this.searchIndex.search(query);
+        val pageSize = paginateParams.getPageSize();
+        val offset = (long) paginateParams.getPage() * pageSize;
+
+        val pageIds = pageIds(matches, sortBy, offset, pageSize);
+        val byId = this.noteRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Note::getId, Function.identity()));
+        val notes = pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        // the index knows the exact number of matches for free, whatever the requested strategy
+        return paginated(paginateParams, toDTOs(notes), matches.size(), "exact", offset + pageSize < matches.size());
+    }
+
+    /**
+     * @return The ids of the matches on the requested page, in the requested order.
+     */
+    private static List<Long> pageIds(List<NoteSearchIndex.Match> matches, String sortBy, long offset, int pageSize) {
+        if (offset >= matches.size()) {
+            return List.of();
+        }
+
+        return matches.stream()
+                .sorted(NoteSearchIndex.Match.order(sortBy))
+                .skip(offset)
+                .limit(pageSize)
+                .map(NoteSearchIndex.Match::id)
+                .toList();
+    }
+
+    /**
+     * Keyset pagination, seeks right after the (sort key, id) position of the cursor so every page
+     * costs the same regardless of how deep it is, and skips the total count.
+     */
+    private PaginatedDTO<NoteDTO> findAllByCursor(String sortBy, PaginateParamsDTO paginateParams) {
+        if (!paginateParams.getQuery().isEmpty()) {
+            throw new SimpleError("Cursor pagination does not support a query.");
+        }
+        if (sortBy.equals("relevance")) {
+            throw new SimpleError("Cursor pagination does not support sorting by 'relevance'.");
+        }
+
+        val pageSize = paginateParams.getPageSize();
+        // fetch one extra note to find out if there is a next page
+        val limit = PageRequest.ofSize(pageSize + 1);
+
+        List<Note> notes;
+        if (paginateParams.getCursor().isEmpty()) {
+            notes = this.noteRepository.findAllBy(limit.withSort(Sort.by(sortBy, "id").ascending()));
+        } else {
+            val cursor = KeysetCursor.decode(paginateParams.getCursor());
+            if (!cursor.sortBy().equals(sortBy)) {
+                throw new SimpleError(STR."Cursor was created for sorting by '\{cursor.sortBy()}'.");
+            }
+
+            try {
+                notes = switch (sortBy) {
+                    case "dateCreated" -> this.noteRepository.findAllAfterDateCreated(
+                            new Date(Long.parseLong(cursor.key())), cursor.id(), limit);
+                    case "dateUpdated" -> this.noteRepository.findAllAfterDateUpdated(
+                            new Date(Long.parseLong(cursor.key())), cursor.id(), limit);
+                    default -> this.noteRepository.findAllAfterTitle(cursor.key(), cursor.id(), limit);
+                };
+            } catch (NumberFormatException e) {
+                throw new SimpleError("Invalid cursor.");
+            }
+        }
+
+        String nextCursor = null;
+        if (notes.size() > pageSize) {
+            notes = notes.subList(0, pageSize);
+            val last = notes.getLast();
+            val key = switch (sortBy) {
+                case "dateCreated" -> String.valueOf(last.getDateCreated().getTime());
+                case "dateUpdated" -> String.valueOf(last.getDateUpdated().getTime());
+                default -> last.getTitle();
+            };
+            nextCursor = new KeysetCursor(sortBy, key, last.getId()).encode();
+        }
+
+        return PaginatedDTO.<NoteDTO>builder()
+                .items(toDTOs(notes))
+                .totalItems(-1)
+                .totalPages(-1)
+                .countStrategy("none")
+                .hasNext(nextCursor != null)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Reads only the requested fields, and at most the first {@code snippet} characters of the body, straight into
+     * {@link NoteDTO}s. Mirrors the pagination modes of {@link #findAll} with the same filters and count strategies.
+     */
+    private PaginatedDTO<NoteDTO> findAllProjected(
+            String sortBy,
+            String countStrategy,
+            NoteSelection selection,
+            PaginateParamsDTO paginateParams
+    ) {
+        val query = paginateParams.getQuery();
+        val pageSize = paginateParams.getPageSize();
+        val offset = (long) paginateParams.getPage() * pageSize;
+
+        if (paginateParams.isCursorMode()) {
+            return findAllProjectedByCursor(sortBy, selection, paginateParams);
+        }
+
+        if (!query.isEmpty() && this.searchIndex.isReady()) {
+            val matches = this.searchIndex.search(query);
+
+            List<NoteDTO> notes = List.of();
+            val pageIds = pageIds(matches, sortBy, offset, pageSize);
+            if (!pageIds.isEmpty()) {
+                val byId = this.noteRepository.findProjected(selection, NoteFilter.ids(pageIds), "id", 0, pageSize).stream()
+                        .collect(Collectors.toMap(NoteDTO::getId, Function.identity()));
+                notes = pageIds.stream()
+                        .map(byId::get)
+                        .filter(Objects::nonNull)
+                        .toList();
+            }
+            return paginated(paginateParams, notes, matches.size(), "exact", offset + pageSize < matches.size());
+        }
+        if (sortBy.equals("relevance")) {
+            throw new SimpleError("Sorting by 'relevance' requires a query.");
+        }
+
+        // one extra row tells whether there is a next page, the count is then computed per strategy
+        var notes = this.noteRepository.findProjected(selection, NoteFilter.matching(query), sortBy, offset, pageSize + 1);
+        val hasNext = notes.size() > pageSize;
+        if (hasNext) {
+            notes = notes.subList(0, pageSize);
+        }
+
+        long totalItems = -1;
+        if (countStrategy.equals("exact")) {
+            totalItems = query.isEmpty() ? this.noteRepository.count() : this.noteRepository.countByQuery(query);
+            if (query.isEmpty()) {
+                this.noteCounter.reset(totalItems);
+            }
+        } else if (countStrategy.equals("cached")) {
+            totalItems = query.isEmpty()
+                    ? this.noteCounter.total()
+                    : this.noteCounter.countMatching(query, this.noteRepository::countByQuery);
+        }
+        return paginated(paginateParams, notes, totalItems, countStrategy, hasNext);
+    }
+
+    /**
+     * Keyset pagination of {@link #findAllProjected}. The sort column makes the cursor, so it's read even when
+     * it wasn't requested, and left out of the response in that case.
+     */
+    private PaginatedDTO<NoteDTO> findAllProjectedByCursor(String sortBy, NoteSelection selection, PaginateParamsDTO paginateParams) {
+        if (!paginateParams.getQuery().isEmpty()) {
+            throw new SimpleError("Cursor pagination does not support a query.");
+        }
+        if (sortBy.equals("relevance")) {
+            throw new SimpleError("Cursor pagination does not support sorting by 'relevance'.");
+        }
+
+        var filter = NoteFilter.all();
+        if (!paginateParams.getCursor().isEmpty()) {
+            val cursor = KeysetCursor.decode(paginateParams.getCursor());
+            if (!cursor.sortBy().equals(sortBy)) {
+                throw new SimpleError(STR."Cursor was created for sorting by '\{cursor.sortBy()}'.");
+            }
+            filter = NoteFilter.after(cursor);
+        }
+
+        val pageSize = paginateParams.getPageSize();
+        List<NoteDTO> notes;
+        try {
+            notes = this.noteRepository.findProjected(selection.with(sortBy), filter, sortBy, 0, pageSize + 1);
+        } catch (NumberFormatException e) {
+            throw new SimpleError("Invalid cursor.");
+        }
+
+        String nextCursor = null;
+        if (notes.size() > pageSize) {
+            notes = notes.subList(0, pageSize);
+            val last = notes.getLast();
+            val key = switch (sortBy) {
+                case "dateCreated" -> String.valueOf(Instant.parse(last.getDateCreated()).toEpochMilli());
+                case "dateUpdated" -> String.valueOf(Instant.parse(last.getDateUpdated()).toEpochMilli());
+                default -> last.getTitle();
+            };
+            nextCursor = new KeysetCursor(sortBy, key, last.getId()).encode();
+        }
+
+        if (!selection.includes(sortBy)) {
+            for (val note : notes) {
+                switch (sortBy) {
+                    case "dateCreated" -> note.setDateCreated(null);
+                    case "dateUpdated" -> note.setDateUpdated(null);
+                    default -> note.setTitle(null);
+                }
+            }
+        }
+
+        return PaginatedDTO.<NoteDTO>builder()
+                .items(notes)
+                .totalItems(-1)
+                .totalPages(-1)
+                .countStrategy("none")
+                .hasNext(nextCursor != null)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Deletes a note with a single DELETE statement, the affected row count tells whether it existed.
+     *
+     * @param id The id of the note.
+     * @throws NotFoundError If the note doesn't exist.
+     */
     @Override
+    @Transactional
     public void deleteOne(Long id) {
-        findOne(id); // throw an error if not found
-        this.noteRepository.deleteById(id);
+        if (this.noteRepository.deleteNoteById(id) == 0) {
+            throw new NotFoundError("Note not found");
+        }
+
+        afterCommit(() -> {
+            this.searchIndex.remove(id);
+            this.noteCache.invalidate(id);
+            this.noteCounter.deleted(1);
+        });
+    }
+
+    /**
+     * Inserts all the notes in a single transaction, the inserts are sent as JDBC batches.
+     *
+     * @param noteDTOs The notes to create.
+     * @return The created notes, in the same order.
+     */
+    @Override
+    @Transactional
+    public List<NoteDTO> createAll(List<NoteDTO> noteDTOs) {
+        val notes = noteDTOs.stream()
+                .map(noteDTO -> {
+                    Note note = Note.builder()
+                            .title(noteDTO.getTitle())
+                            .build();
+                    note.setFullBody(noteDTO.getBody(), this.inlineBodySize);
+                    return note;
+                })
+                .toList();
+
+        val created = this.noteRepository.saveAllAndFlush(notes).stream()
+                .map(this::afterWrite)
+                .toList();
+        afterCommit(() -> this.noteCounter.created(created.size()));
+        return created;
+    }
+
+    /**
+     * Updates all the notes in a single transaction, the notes are loaded with one query
+     * and the updates are sent as JDBC batches.
+     *
+     * @param noteDTOs The notes to update.
+     * @return The updated notes by id, the ids of missing notes are absent.
+     */
+    @Override
+    @Transactional
+    public Map<Long, NoteDTO> updateAll(List<NoteDTO> noteDTOs) {
+        val ids = noteDTOs.stream().map(NoteDTO::getId).collect(Collectors.toSet());
+        val notes = this.noteRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Note::getId, Function.identity()));
+
+        for (val noteDTO : noteDTOs) {
+            val note = notes.get(noteDTO.getId());
+            if (note != null) {
+                note.setTitle(noteDTO.getTitle());
+                note.setFullBody(noteDTO.getBody(), this.inlineBodySize);
+                note.setDateUpdated(new Date());
+            }
+        }
+        this.noteRepository.flush();
+        afterCommit(this.noteCounter::updated);
+
+        return notes.values().stream()
+                .map(this::afterWrite)
+                .collect(Collectors.toMap(NoteDTO::getId, Function.identity()));
+    }
+
+    /**
+     * Deletes all the notes in a single transaction, with one DELETE statement per chunk of
+     * {@value #DELETE_CHUNK_SIZE} ids so large deletes stay within the bind parameter limit.
+     * The existing ids of a chunk are looked up beforehand since the caller reports the outcome per id.
+     *
+     * @param ids The ids of the notes to delete.
+     * @return The ids of the notes that existed and were deleted.
+     */
+    @Override
+    @Transactional
+    public Set<Long> deleteAll(Collection<Long> ids) {
+        val deleted = new HashSet<Long>();
+        val chunk = new ArrayList<Long>(Math.min(ids.size(), DELETE_CHUNK_SIZE));
+
+        for (val id : new LinkedHashSet<>(ids)) {
+            chunk.add(id);
+            if (chunk.size() == DELETE_CHUNK_SIZE) {
+                deleteChunk(chunk, deleted);
+            }
+        }
+        deleteChunk(chunk, deleted);
+
+        afterCommit(() -> {
+            for (Long id : deleted) {
+                this.searchIndex.remove(id);
+                this.noteCache.invalidate(id);
+            }
+            this.noteCounter.deleted(deleted.size());
+        });
+        return deleted;
+    }
+
+    private void deleteChunk(List<Long> chunk, Set<Long> deleted) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        val existing = this.noteRepository.findExistingIds(chunk);
+        if (!existing.isEmpty()) {
+            this.noteRepository.deleteNotesByIdIn(existing);
+            deleted.addAll(existing);
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Streams every note matching the export parameters to the consumer, in batches of {@value #EXPORT_BATCH_SIZE}.
+     * The notes are read through a forward-only cursor and detached once consumed,
+     * so the memory use doesn't grow with the number of exported notes. The query is part of the
+     * database query and matches like the database listings, never through the search index,
+     * so an export matches the same notes whether or not the index is ready.
+     *
+     * @param exportParams The query and modification date range to export.
+     * @param consumer     Receives the exported notes in id order.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(ExportParamsDTO exportParams, Consumer<NoteDTO> consumer) {
+        val from = parseInstant(exportParams.getFrom(), Instant.EPOCH);
+        val to = parseInstant(exportParams.getTo(), Instant.parse("9999-12-31T23:59:59Z"));
+        val query = exportParams.getQuery();
+
+        try (Stream<Note> notes = query == null || query.isEmpty()
+                ? this.noteRepository.streamAllUpdatedBetween(Date.from(from), Date.from(to))
+                : this.noteRepository.streamAllUpdatedBetweenByQuery(Date.from(from), Date.from(to), query)) {
+            // the notes are mapped in batches so the compressed bodies of a batch are read with one query
+            val batch = new ArrayList<Note>(EXPORT_BATCH_SIZE);
+            notes.forEach(note -> {
+                batch.add(note);
+                if (batch.size() == EXPORT_BATCH_SIZE) {
+                    exportBatch(batch, consumer);
+                }
+            });
+            exportBatch(batch, consumer);
+        }
+    }
+
+    private void exportBatch(List<Note> batch, Consumer<NoteDTO> consumer) {
+        toDTOs(batch).forEach(consumer);
+        batch.forEach(this.entityManager::detach);
+        batch.clear();
+    }
+
+    private static Instant parseInstant(String value, Instant defValue) {
+        if (value == null || value.isEmpty()) {
+            return defValue;
+        }
+
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new SimpleError(STR."'\{value}' is not a valid ISO-8601 instant.");
+        }
+    }
+
+    /**
+     * Brings the search index and the cache up to date with a written note, once the write is committed.
+     */
+    private NoteDTO afterWrite(Note note) {
+        val dto = this.noteMapper.toDTO(note);
+        val dateCreated = note.getDateCreated();
+        val dateUpdated = note.getDateUpdated();
+        afterCommit(() -> {
+            this.searchIndex.index(dto.getId(), dto.getTitle(), dto.getBody(), dateCreated, dateUpdated);
+            this.noteCache.put(dto);
+        });
+        return dto;
+    }
+
+    /**
+     * Runs the action once the current transaction commits, so a rolled back write never reaches the
+     * search index, the cache or the note counts, or right away outside a transaction. A concurrent {@code findOne} that
+     * loaded the note from the primary before the commit can't put it back afterward, since the cache invalidation waits
+     * for an in-flight load of the same note, and one loading it after the commit reads the committed note.
+     * This only holds because {@code findOne} never loads from a replica.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
@@ -0,0 +1,109 @@
+package com.ota.api.note.services;
+
+import com.ota.api.note.Config;
+import com.ota.api.note.errors.SimpleError;
+import com.ota.api.note.logstore.SegmentLogStore;
+import com.ota.api.note.models.dto.LogDTO;
+import com.ota.api.note.models.dto.LogQueryParamsDTO;
+import com.ota.api.note.models.dto.PaginatedDTO;
+import com.ota.api.note.repositories.LogCriteria;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Writes the request logs to the {@link SegmentLogStore} instead of the database, enabled with
+ * {@code app.log-store.type=segment}.
+ * <p>
+ * Appending a record is a copy into a memory-mapped file, cheap enough to run on the request
+ * thread. It takes no database connection and no ORM, so request logging doesn't compete
+ * with the note queries for the connection pool.
+ *
+ * @see Config.LogStore
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.log-store", name = "type", havingValue = "segment")
+public class SegmentLogService implements LogService {
+    private final SegmentLogStore store;
+
+    @Autowired
+    public SegmentLogService(Config config) {
+        this(new SegmentLogStore(config.logStore()));
+    }
+
+    SegmentLogService(SegmentLogStore store) {
+        this.store = store;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        this.store.open();
+    }
+
+    @PreDestroy
+    public void close() {
+        this.store.close();
+    }
+
+    /**
+     * Appends the log entry to the active segment.
+     *
+     * @param data The log entry to write.
+     */
+    @Override
+    public void write(LogDTO data) {
+        this.store.append(data);
+    }
+
+    /**
+     * Scans the segments for the matching logs. The tracing id and time window skip whole segments
+     * through their indexes, the path and status are checked record by record.
+     */
+    @Override
+    public PaginatedDTO<LogDTO> find(LogQueryParamsDTO params) {
+        val criteria = LogCriteria.of(params);
+        val from = criteria.from() == null ? Long.MIN_VALUE : criteria.from().toEpochMilli();
+        val to = criteria.to() == null ? Long.MAX_VALUE : criteria.to().toEpochMilli();
+
+        val logs = new ArrayList<LogDTO>();
+        try {
+            this.store.scan(from, to, criteria.tracingId(), criteria.afterId(), logDTO -> {
+                if (criteria.matches(logDTO)) {
+                    logs.add(logDTO);
+                }
+                return logs.size() <= criteria.pageSize();
+            });
+        } catch (IllegalArgumentException e) {
+            throw new SimpleError("Invalid cursor.");
+        }
+        return criteria.page(logs);
+    }
+
+    /**
+     * Takes a snapshot of the store counters.
+     *
+     * @return The current counters of the store.
+     */
+    public Stats stats() {
+        return new Stats(this.store.written(), this.store.dropped(), this.store.segmentCount());
+    }
+
+    /**
+     * A snapshot of the store counters.
+     *
+     * @param written  The number of records appended since the store was opened.
+     * @param dropped  The number of records rejected because they were larger than a segment, or lost because the write failed.
+     * @param segments The number of segment files of the store.
+     */
+    public record Stats(long written, long dropped, int segments) {
+    }
+}
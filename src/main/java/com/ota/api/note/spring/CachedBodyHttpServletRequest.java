@@ -3,55 +3,85 @@ package com.ota.api.note.spring;
 import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletRequestWrapper;
-import org.springframework.util.StreamUtils;
+import lombok.val;
 
 import java.io.*;
-import java.util.stream.Collectors;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 /**
  * This class extends HttpServletRequestWrapper to cache the request body.
- * It reads the request body InputStream and caches it in a byte array to allow multiple read operations.
+ * The body is not read upfront: the input stream is wrapped so the bytes consumed by downstream code
+ * are copied into a {@link CaptureBuffer} as they are read, up to the capacity of the buffer.
+ * A body nobody reads is never copied, and a body larger than the buffer is only partially kept.
  *
  * @author Miko Chu
  * @since 2024-04-27
  */
 public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
-    private final byte[] cachedBody;
+    private final CaptureBuffer capture;
+    private ServletInputStream inputStream;
+    private BufferedReader reader;
 
     /**
-     * Constructs a CachedBodyHttpServletRequest by caching the request body from the original HttpServletRequest.
+     * Constructs a CachedBodyHttpServletRequest around the original HttpServletRequest.
      *
      * @param request The original HTTP servlet request
-     * @throws IOException If an I/O error occurs during the reading of the request body
+     * @param capture The buffer receiving the copy of the request body
      */
-    public CachedBodyHttpServletRequest(HttpServletRequest request) throws IOException {
+    public CachedBodyHttpServletRequest(HttpServletRequest request, CaptureBuffer capture) {
         super(request);
-        InputStream requestInputStream = request.getInputStream();
-        this.cachedBody = StreamUtils.copyToByteArray(requestInputStream);
+        this.capture = capture;
     }
 
     /**
-     * Overrides getInputStream() to return a ServletInputStream that reads from the cached request body byte array.
+     * Overrides getInputStream() to return a ServletInputStream that copies the bytes it reads.
      *
-     * @return ServletInputStream that reads from the cached request body byte array
+     * @return ServletInputStream that copies the request body as it is read
+     * @throws IOException If an I/O error occurs
      */
     @Override
-    public ServletInputStream getInputStream() {
-        return new CachedBodyServletInputStream(this.cachedBody);
+    public ServletInputStream getInputStream() throws IOException {
+        if (this.reader != null) {
+            throw new IllegalStateException("getReader() has already been called on this request.");
+        }
+
+        if (this.inputStream == null) {
+            this.inputStream = new CachedBodyServletInputStream(super.getInputStream(), this.capture);
+        }
+        return this.inputStream;
     }
 
     /**
-     * Overrides getReader() to return a BufferedReader that reads from the cached request body byte array.
+     * Overrides getReader() to return a BufferedReader that copies the bytes it reads.
      *
-     * @return BufferedReader that reads from the cached request body byte array
+     * @return BufferedReader that copies the request body as it is read, decoded with the request charset
+     * @throws IOException If an I/O error occurs
      */
     @Override
-    public BufferedReader getReader() {
-        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(this.cachedBody);
-        return new BufferedReader(new InputStreamReader(byteArrayInputStream));
+    public BufferedReader getReader() throws IOException {
+        if (this.reader == null) {
+            if (this.inputStream != null) {
+                throw new IllegalStateException("getInputStream() has already been called on this request.");
+            }
+
+            val stream = new CachedBodyServletInputStream(super.getInputStream(), this.capture);
+            this.reader = new BufferedReader(new InputStreamReader(stream, getCharset()));
+        }
+        return this.reader;
     }
 
+    /**
+     * Retrieves the part of the request body read so far, decoded with the request charset.
+     *
+     * @return The request body as read by downstream code, marked if truncated.
+     */
     public String getBody() {
-        return this.getReader().lines().collect(Collectors.joining());
+        return this.capture.toBody(getCharset());
+    }
+
+    private Charset getCharset() {
+        val encoding = getCharacterEncoding();
+        return encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
     }
-}
\ No newline at end of file
+}
@@ -3,12 +3,12 @@ package com.ota.api.note.spring;
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpServletResponseWrapper;
-import lombok.SneakyThrows;
 import lombok.val;
 
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.nio.charset.Charset;
 
 /**
  * Wrapper for HttpServletResponse that caches the response body.
@@ -22,14 +22,17 @@ public class CachedBodyHttpServletResponse extends HttpServletResponseWrapper {
     private ServletOutputStream outputStream;
     private PrintWriter writer;
     private CachedBodyServletOutputStream cachedOutput;
+    private final CaptureBuffer capture;
 
     /**
      * Constructs a {@link CachedBodyHttpServletResponse} with the provided {@link HttpServletResponse}.
      *
      * @param response The original HttpServletResponse to be wrapped.
+     * @param capture  The buffer receiving the copy of the response body.
      */
-    public CachedBodyHttpServletResponse(HttpServletResponse response) {
+    public CachedBodyHttpServletResponse(HttpServletResponse response, CaptureBuffer capture) {
         super(response);
+        this.capture = capture;
     }
 
     /**
@@ -46,7 +49,7 @@ public class CachedBodyHttpServletResponse extends HttpServletResponseWrapper {
 
         if (outputStream == null) {
             outputStream = getResponse().getOutputStream();
-            cachedOutput = new CachedBodyServletOutputStream(outputStream);
+            cachedOutput = new CachedBodyServletOutputStream(outputStream, capture);
         }
 
         return cachedOutput;
@@ -65,7 +68,7 @@ public class CachedBodyHttpServletResponse extends HttpServletResponseWrapper {
         }
 
         if (writer == null) {
-            cachedOutput = new CachedBodyServletOutputStream(getResponse().getOutputStream());
+            cachedOutput = new CachedBodyServletOutputStream(getResponse().getOutputStream(), capture);
             writer = new PrintWriter(new OutputStreamWriter(cachedOutput, getResponse().getCharacterEncoding()), true);
         }
 
@@ -87,26 +90,13 @@ public class CachedBodyHttpServletResponse extends HttpServletResponseWrapper {
     }
 
     /**
-     * Retrieves the cached response body as a string.
+     * Retrieves the cached response body as a string, decoded straight from the capture buffer.
+     * The body is truncated and marked if the response exceeded the capacity of the buffer.
      *
      * @return The cached response body as a string.
      */
-    @SneakyThrows
     public String getBody() {
         val charEncoding = this.getResponse().getCharacterEncoding();
-        return new String(this.getCopy(), charEncoding);
-    }
-
-    /**
-     * Retrieves the cached response body as a byte array.
-     *
-     * @return The cached response body as a byte array.
-     */
-    private byte[] getCopy() {
-        if (cachedOutput != null) {
-            return cachedOutput.getCopy();
-        } else {
-            return new byte[0];
-        }
+        return capture.toBody(Charset.forName(charEncoding));
     }
 }
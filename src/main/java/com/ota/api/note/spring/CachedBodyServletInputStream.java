@@ -2,28 +2,31 @@ package com.ota.api.note.spring;
 
 import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletInputStream;
-import lombok.SneakyThrows;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 
 /**
- * This class extends ServletInputStream to provide a stream that reads from a cached request body byte array.
+ * This class extends ServletInputStream to keep a copy of the request body as it is read.
+ * Every byte read from the original stream is also written to a {@link CaptureBuffer},
+ * so only the part of the body that downstream code actually consumes is copied,
+ * and no more than the capacity of the buffer.
  *
  * @author Miko Chu
  * @since 2024-04-27
  */
 public class CachedBodyServletInputStream extends ServletInputStream {
-    private final InputStream cachedBodyInputStream;
+    private final ServletInputStream inputStream;
+    private final CaptureBuffer copy;
 
     /**
-     * Constructs a CachedBodyServletInputStream with the cached request body byte array.
+     * Constructs a CachedBodyServletInputStream over the original request body stream.
      *
-     * @param cachedBody The cached request body byte array
+     * @param inputStream The original ServletInputStream to be wrapped
+     * @param copy        The buffer receiving the copy of the read bytes
      */
-    public CachedBodyServletInputStream(byte[] cachedBody) {
-        this.cachedBodyInputStream = new ByteArrayInputStream(cachedBody);
+    public CachedBodyServletInputStream(ServletInputStream inputStream, CaptureBuffer copy) {
+        this.inputStream = inputStream;
+        this.copy = copy;
     }
 
     /**
@@ -31,10 +34,9 @@ public class CachedBodyServletInputStream extends ServletInputStream {
      *
      * @return true if the stream has reached the end; otherwise, false
      */
-    @SneakyThrows
     @Override
     public boolean isFinished() {
-        return cachedBodyInputStream.available() == 0;
+        return inputStream.isFinished();
     }
 
     /**
@@ -44,19 +46,17 @@ public class CachedBodyServletInputStream extends ServletInputStream {
      */
     @Override
     public boolean isReady() {
-        return true;
+        return inputStream.isReady();
     }
 
     /**
-     * Sets the ReadListener for asynchronous processing.
-     * This method throws UnsupportedOperationException because servlet input streams do not support asynchronous processing.
+     * Sets the ReadListener for asynchronous processing on the original stream.
      *
-     * @param readListener The ReadListener (not supported)
-     * @throws UnsupportedOperationException If asynchronous processing is attempted
+     * @param readListener The ReadListener
      */
     @Override
     public void setReadListener(ReadListener readListener) {
-        throw new UnsupportedOperationException();
+        inputStream.setReadListener(readListener);
     }
 
     /**
@@ -67,6 +67,28 @@ public class CachedBodyServletInputStream extends ServletInputStream {
      */
     @Override
     public int read() throws IOException {
-        return cachedBodyInputStream.read();
+        int b = inputStream.read();
+        if (b != -1) {
+            copy.write(b);
+        }
+        return b;
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads up to {@code len} bytes of data from the input stream in a single call.
+     *
+     * @param b   The buffer into which the data is read
+     * @param off The start offset in the buffer
+     * @param len The maximum number of bytes to read
+     * @return The number of bytes read, or -1 if the end of the stream is reached
+     * @throws IOException If an I/O error occurs
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = inputStream.read(b, off, len);
+        if (read > 0) {
+            copy.write(b, off, read);
+        }
+        return read;
+    }
+}
@@ -3,7 +3,6 @@ package com.ota.api.note.spring;
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.WriteListener;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
@@ -11,22 +10,26 @@ import java.io.OutputStream;
  * {@link ServletOutputStream} wrapper that caches the output stream.
  * This wrapper is used to return a copy of the output stream instead of reading directly,
  * ensuring that subsequent reads do not result in an empty string.
+ * <p>
+ * The copy goes into a {@link CaptureBuffer}, which keeps at most its capacity, so a large
+ * response is truncated in the copy while it is still written in full to the client.
  *
  * @author Miko Chu
  * @since 2024-04-27
  */
 public class CachedBodyServletOutputStream extends ServletOutputStream {
     private final OutputStream outputStream;
-    private final ByteArrayOutputStream copy;
+    private final CaptureBuffer copy;
 
     /**
      * Constructs a {@link CachedBodyServletOutputStream} with the provided {@link OutputStream}.
      *
      * @param outputStream The original OutputStream to be wrapped.
+     * @param copy         The buffer receiving the copy of the written bytes.
      */
-    public CachedBodyServletOutputStream(OutputStream outputStream) {
+    public CachedBodyServletOutputStream(OutputStream outputStream, CaptureBuffer copy) {
         this.outputStream = outputStream;
-        this.copy = new ByteArrayOutputStream(1024);
+        this.copy = copy;
     }
 
 
@@ -52,11 +55,35 @@ public class CachedBodyServletOutputStream extends ServletOutputStream {
     }
 
     /**
-     * Retrieves the cached output stream as a byte array.
+     * Writes the specified bytes to the output stream in a single call.
      *
-     * @return The cached output stream as a byte array.
+     * @param b   The bytes to be written.
+     * @param off The start offset in the bytes.
+     * @param len The number of bytes to write.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        outputStream.write(b, off, len);
+        copy.write(b, off, len);
+    }
+
+    /**
+     * Flushes the original output stream.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void flush() throws IOException {
+        outputStream.flush();
+    }
+
+    /**
+     * Retrieves the buffer holding the copy of the output stream.
+     *
+     * @return The buffer holding the copy of the output stream.
      */
-    public byte[] getCopy() {
-        return copy.toByteArray();
+    public CaptureBuffer getCopy() {
+        return copy;
     }
 }
@@ -0,0 +1,136 @@
+package com.ota.api.note.spring;
+
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer holding a copy of a request or response body, up to a fixed capacity.
+ * Bytes written past the capacity are counted but not kept, the body is then reported as truncated
+ * by {@link #toBody(Charset)}, which ends it with {@link #TRUNCATED_MARKER}.
+ * <p>
+ * Buffers are meant to be reused through a {@link CaptureBufferPool}, so the backing array
+ * survives {@link #reset()} and only grows when a larger body comes along.
+ *
+ * @author Miko Chu
+ * @since 2024-05-12
+ */
+public class CaptureBuffer extends OutputStream {
+    /**
+     * Ends a logged body that was cut at the capacity.
+     */
+    public static final String TRUNCATED_MARKER = "...[truncated]";
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int maxCapacity;
+    private byte[] buffer;
+    private int count;
+    private boolean truncated;
+
+    /**
+     * Constructs a {@link CaptureBuffer} keeping at most {@code maxCapacity} bytes.
+     *
+     * @param maxCapacity The maximum number of bytes kept.
+     */
+    public CaptureBuffer(int maxCapacity) {
+        this.maxCapacity = maxCapacity;
+        this.buffer = new byte[Math.min(INITIAL_CAPACITY, maxCapacity)];
+    }
+
+    /**
+     * Copies a single byte, if the capacity allows it.
+     *
+     * @param b The byte to copy.
+     */
+    @Override
+    public void write(int b) {
+        if (ensureCapacity(1) < 1) {
+            return;
+        }
+        this.buffer[this.count++] = (byte) b;
+    }
+
+    /**
+     * Copies as many of the given bytes as the capacity allows.
+     *
+     * @param b   The bytes to copy from.
+     * @param off The start offset in the bytes.
+     * @param len The number of bytes to copy.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) {
+        int copied = ensureCapacity(len);
+        System.arraycopy(b, off, this.buffer, this.count, copied);
+        this.count += copied;
+    }
+
+    /**
+     * @return The number of bytes kept.
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * @return The length of the backing array, which can be larger than {@link #size()}.
+     */
+    public int capacity() {
+        return this.buffer.length;
+    }
+
+    /**
+     * @return true if some of the written bytes were dropped because of the capacity.
+     */
+    public boolean isTruncated() {
+        return this.truncated;
+    }
+
+    /**
+     * Decodes the kept bytes straight from the backing array.
+     *
+     * @param charset The charset of the body.
+     * @return The decoded body.
+     */
+    public String toString(Charset charset) {
+        return new String(this.buffer, 0, this.count, charset);
+    }
+
+    /**
+     * Decodes the kept bytes as a logged body, ending with {@link #TRUNCATED_MARKER} if some bytes were dropped.
+     *
+     * @param charset The charset of the body.
+     * @return The decoded body.
+     */
+    public String toBody(Charset charset) {
+        String body = toString(charset);
+        return this.truncated ? body + TRUNCATED_MARKER : body;
+    }
+
+    /**
+     * Empties the buffer, keeping the backing array for reuse.
+     */
+    public void reset() {
+        this.count = 0;
+        this.truncated = false;
+    }
+
+    /**
+     * Grows the backing array for the requested number of bytes, within the maximum capacity.
+     *
+     * @return The number of bytes that can be copied.
+     */
+    private int ensureCapacity(int requested) {
+        int available = Math.min(requested, this.maxCapacity - this.count);
+        if (available < requested) {
+            this.truncated = true;
+        }
+
+        int required = this.count + available;
+        if (required > this.buffer.length) {
+            int grown = Math.max(required, Math.min(this.buffer.length * 2, this.maxCapacity));
+            this.buffer = Arrays.copyOf(this.buffer, grown);
+        }
+        return available;
+    }
+}
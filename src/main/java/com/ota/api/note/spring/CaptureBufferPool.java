@@ -0,0 +1,77 @@
+package com.ota.api.note.spring;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free pool of {@link CaptureBuffer} so body capture doesn't allocate fresh arrays on every request.
+ * At most {@code maxPooled} idle buffers are retained, extra buffers are left to the garbage collector,
+ * and so are the buffers that grew past {@code maxRetained} bytes, so a rare large record doesn't stay pinned.
+ *
+ * @author Miko Chu
+ * @since 2024-05-12
+ */
+public class CaptureBufferPool {
+    private final Queue<CaptureBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final int maxCapacity;
+    private final int maxPooled;
+    private final int maxRetained;
+
+    /**
+     * Constructs a {@link CaptureBufferPool} retaining buffers of any size up to the capacity.
+     *
+     * @param maxCapacity The maximum number of bytes kept by each buffer.
+     * @param maxPooled   The maximum number of idle buffers retained.
+     */
+    public CaptureBufferPool(int maxCapacity, int maxPooled) {
+        this(maxCapacity, maxPooled, maxCapacity);
+    }
+
+    /**
+     * Constructs a {@link CaptureBufferPool}.
+     *
+     * @param maxCapacity The maximum number of bytes kept by each buffer.
+     * @param maxPooled   The maximum number of idle buffers retained.
+     * @param maxRetained The largest backing array of a buffer returned to the pool, larger ones are dropped.
+     */
+    public CaptureBufferPool(int maxCapacity, int maxPooled, int maxRetained) {
+        this.maxCapacity = maxCapacity;
+        this.maxPooled = maxPooled;
+        this.maxRetained = maxRetained;
+    }
+
+    /**
+     * Takes an empty buffer from the pool, or creates one if the pool is empty.
+     *
+     * @return An empty buffer.
+     */
+    public CaptureBuffer acquire() {
+        CaptureBuffer buffer = this.buffers.poll();
+        if (buffer == null) {
+            return new CaptureBuffer(this.maxCapacity);
+        }
+
+        this.pooled.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool, the buffer must not be used afterward.
+     *
+     * @param buffer The buffer to return, ignored if null or larger than the retained size.
+     */
+    public void release(CaptureBuffer buffer) {
+        if (buffer == null || buffer.capacity() > this.maxRetained) {
+            return;
+        }
+
+        buffer.reset();
+        if (this.pooled.incrementAndGet() <= this.maxPooled) {
+            this.buffers.offer(buffer);
+        } else {
+            this.pooled.decrementAndGet();
+        }
+    }
+}
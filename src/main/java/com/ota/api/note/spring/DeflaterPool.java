@@ -0,0 +1,67 @@
+package com.ota.api.note.spring;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * Lock-free pool of raw {@link Deflater} instances, so response compression doesn't allocate the
+ * native zlib state on every request. At most {@code maxPooled} idle deflaters are retained,
+ * extra deflaters are ended right away instead of waiting for the garbage collector.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+public class DeflaterPool {
+    private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final int level;
+    private final int maxPooled;
+
+    /**
+     * Constructs a {@link DeflaterPool}.
+     *
+     * @param level     The compression level of the deflaters, from 1 to 9.
+     * @param maxPooled The maximum number of idle deflaters retained.
+     */
+    public DeflaterPool(int level, int maxPooled) {
+        this.level = level;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Takes a deflater from the pool, or creates one if the pool is empty.
+     * The deflater writes raw deflate data, the caller adds the gzip header and trailer.
+     *
+     * @return A deflater ready for a new stream.
+     */
+    public Deflater acquire() {
+        Deflater deflater = this.deflaters.poll();
+        if (deflater == null) {
+            return new Deflater(this.level, true);
+        }
+
+        this.pooled.decrementAndGet();
+        return deflater;
+    }
+
+    /**
+     * Returns a deflater to the pool, the deflater must not be used afterward.
+     *
+     * @param deflater The deflater to return, ignored if null.
+     */
+    public void release(Deflater deflater) {
+        if (deflater == null) {
+            return;
+        }
+
+        deflater.reset();
+        if (this.pooled.incrementAndGet() <= this.maxPooled) {
+            this.deflaters.offer(deflater);
+        } else {
+            this.pooled.decrementAndGet();
+            deflater.end();
+        }
+    }
+}
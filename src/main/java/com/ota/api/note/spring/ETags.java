@@ -0,0 +1,132 @@
+package com.ota.api.note.spring;
+
+import com.ota.api.note.errors.PreconditionFailedError;
+import com.ota.api.note.models.dto.NoteDTO;
+import com.ota.api.note.models.dto.PaginateParamsDTO;
+import com.ota.api.note.models.dto.PaginatedDTO;
+import lombok.val;
+
+import java.util.Objects;
+
+/**
+ * ETags is a utility class for deriving entity tags of the note resources, used for conditional requests.
+ * The tags are computed from the note ids and versions so they can be checked
+ * without serializing the response body. A note tag has the form {@code "<id>-v<version>"}.
+ *
+ * @author Miko Chu
+ * @since 2024-05-08
+ */
+public final class ETags {
+    /**
+     * Marks the tag of a gzip-encoded representation, which differs byte for byte from the identity one.
+     */
+    public static final String GZIP_SUFFIX = "--gzip";
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ETags() {}
+
+    /**
+     * Derives the strong entity tag of a single note.
+     *
+     * @param id      The id of the note.
+     * @param version The version of the note.
+     * @return The quoted entity tag.
+     */
+    public static String forNote(long id, long version) {
+        return STR."\"\{id}-v\{version}\"";
+    }
+
+    /**
+     * Derives the strong entity tag of a single note.
+     *
+     * @param note The note.
+     * @return The quoted entity tag, or null if the note has no version.
+     */
+    public static String forNote(NoteDTO note) {
+        if (note.getVersion() == null) {
+            return null;
+        }
+        return forNote(note.getId(), note.getVersion());
+    }
+
+    /**
+     * Extracts the version a client expects a note to be at from an If-Match header.
+     * Only strong tags of the given note are accepted, as a weak tag never matches a write precondition.
+     *
+     * @param ifMatch The value of the If-Match header.
+     * @param id      The id of the note being written.
+     * @return The expected version, or null for {@code *} which matches any version.
+     * @throws PreconditionFailedError If the header doesn't hold a tag of the note.
+     */
+    public static Long parseIfMatch(String ifMatch, long id) {
+        val value = ifMatch.trim();
+        if (value.equals("*")) {
+            return null;
+        }
+
+        val prefix = STR."\"\{id}-v";
+        if (value.startsWith(prefix) && value.endsWith("\"") && value.length() > prefix.length() + 1) {
+            try {
+                return Long.parseLong(value.substring(prefix.length(), value.length() - 1));
+            } catch (NumberFormatException e) {
+                // falls through to the precondition failure
+            }
+        }
+        throw new PreconditionFailedError(STR."If-Match \{value} doesn't match the current version of the note.");
+    }
+
+    /**
+     * Derives the tag of the gzip-encoded representation from the tag of the identity one.
+     *
+     * @param eTag The quoted entity tag.
+     * @return The tag with the {@link #GZIP_SUFFIX} inside its quotes.
+     */
+    public static String toGzip(String eTag) {
+        if (!eTag.endsWith("\"") || eTag.endsWith(STR."\{GZIP_SUFFIX}\"")) {
+            return eTag;
+        }
+        return STR."\{eTag.substring(0, eTag.length() - 1)}\{GZIP_SUFFIX}\"";
+    }
+
+    /**
+     * Maps the tags of gzip-encoded representations in an If-Match or If-None-Match header back to the identity ones,
+     * so the conditional request is evaluated against the resource regardless of its encoding.
+     *
+     * @param header The value of the header.
+     * @return The value without the {@link #GZIP_SUFFIX}.
+     */
+    public static String fromGzip(String header) {
+        return header.replace(STR."\{GZIP_SUFFIX}\"", "\"");
+    }
+
+    /**
+     * Derives a fingerprint of a page of notes from the request parameters, the totals and the count strategy
+     * they were computed with, and the id and version of every note in it. The strategy is part of the fingerprint
+     * since an exact and a cached count of the same page can differ while the cached one lags behind.
+     *
+     * @param params The request parameters of the page.
+     * @param page   The page of notes.
+     * @return The quoted entity tag.
+     */
+    public static String forPage(PaginateParamsDTO params, PaginatedDTO<NoteDTO> page) {
+        var hash = FNV_OFFSET_BASIS;
+        hash = mix(hash, Objects.hash(params.getQuery(), params.getSortBy(), params.getPage(), params.getPageSize(), params.getCursor(),
+                params.getFields(), params.getSnippet(), params.getCount()));
+        hash = mix(hash, Objects.hash(page.getCountStrategy(), page.getTotalItems(), page.isHasNext()));
+        for (val note : page.getItems()) {
+            hash = mix(hash, Long.hashCode(note.getId()));
+            hash = mix(hash, Objects.hashCode(note.getVersion()));
+        }
+        return STR."\"p-\{Long.toHexString(hash)}\"";
+    }
+
+    private static long mix(long hash, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,250 @@
+package com.ota.api.note.spring;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.val;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Wrapper for HttpServletResponse that gzips the body with a {@link GzipServletOutputStream}.
+ * <p>
+ * The Content-Length set by the application is held back, since it no longer holds once the body
+ * is compressed, and only applied when the body goes out as is. When the body is compressed the
+ * strong ETag gets a {@link ETags#GZIP_SUFFIX suffix}, so the two encodings of a resource never
+ * share a tag. {@link #finish()} must be called once the request has been handled.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+public class GzipHttpServletResponse extends HttpServletResponseWrapper {
+    private final DeflaterPool deflaterPool;
+    private final int minSize;
+    private final Set<String> mimeTypes;
+
+    private GzipServletOutputStream outputStream;
+    private PrintWriter writer;
+    private long contentLength = -1;
+    private boolean identity;
+
+    /**
+     * Constructs a {@link GzipHttpServletResponse}.
+     *
+     * @param response     The original HttpServletResponse to be wrapped.
+     * @param deflaterPool The pool of deflaters.
+     * @param minSize      The size from which the body is compressed.
+     * @param mimeTypes    The compressible content types, without parameters.
+     */
+    public GzipHttpServletResponse(HttpServletResponse response, DeflaterPool deflaterPool, int minSize, Set<String> mimeTypes) {
+        super(response);
+        this.deflaterPool = deflaterPool;
+        this.minSize = minSize;
+        this.mimeTypes = mimeTypes;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (this.writer != null) {
+            throw new IllegalStateException("getWriter() has already been called on this response.");
+        }
+
+        if (this.outputStream == null) {
+            this.outputStream = new GzipServletOutputStream(this, this.deflaterPool, this.minSize);
+        }
+        return this.outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (this.outputStream != null && this.writer == null) {
+            throw new IllegalStateException("getOutputStream() has already been called on this response.");
+        }
+
+        if (this.writer == null) {
+            this.outputStream = new GzipServletOutputStream(this, this.deflaterPool, this.minSize);
+            this.writer = new PrintWriter(new OutputStreamWriter(this.outputStream, getCharacterEncoding()));
+        }
+        return this.writer;
+    }
+
+    /**
+     * Flushes the body written so far, which stays held back while it's under the minimum size.
+     */
+    @Override
+    public void flushBuffer() throws IOException {
+        if (this.writer != null) {
+            this.writer.flush();
+        } else if (this.outputStream != null) {
+            this.outputStream.flush();
+        }
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        this.contentLength = len;
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        this.contentLength = len;
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            this.contentLength = value == null ? -1 : Long.parseLong(value);
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            this.contentLength = Long.parseLong(value);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (this.outputStream != null) {
+            this.outputStream.discardPending();
+        }
+        super.resetBuffer();
+    }
+
+    @Override
+    public void reset() {
+        resetBuffer();
+        this.contentLength = -1;
+        super.reset();
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        skipCompression();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        skipCompression();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        skipCompression();
+        super.sendRedirect(location);
+    }
+
+    /**
+     * Decides whether to compress a body larger than the minimum size, and sets the headers accordingly.
+     * Called by the stream before the first byte reaches the client.
+     *
+     * @return true if the body is to be compressed.
+     */
+    boolean startCompression() {
+        val compressible = isCompressible();
+        if (compressible) {
+            addVary();
+        }
+
+        val status = getStatus();
+        if (!compressible || this.identity || status < 200 || status == SC_NO_CONTENT || status == SC_PARTIAL_CONTENT
+                || status == SC_NOT_MODIFIED || getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            applyContentLength();
+            return false;
+        }
+
+        super.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        val eTag = getHeader(HttpHeaders.ETAG);
+        if (eTag != null) {
+            super.setHeader(HttpHeaders.ETAG, ETags.toGzip(eTag));
+        }
+        return true;
+    }
+
+    /**
+     * Sends a body smaller than the minimum size as is.
+     *
+     * @param size The size of the body.
+     */
+    void startIdentity(int size) {
+        if (isCompressible()) {
+            addVary();
+        }
+        if (this.contentLength < 0 && size > 0 && !this.identity) {
+            this.contentLength = size;
+        }
+        applyContentLength();
+    }
+
+    /**
+     * Writes out the rest of the body, to be called once the request has been handled.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public void finish() throws IOException {
+        if (this.writer != null) {
+            this.writer.flush();
+        }
+
+        if (this.outputStream != null) {
+            this.outputStream.finish();
+        } else if (!isCommitted()) {
+            applyContentLength();
+        }
+    }
+
+    /**
+     * Returns the deflater to the pool when the request failed before {@link #finish()}.
+     */
+    public void release() {
+        if (this.outputStream != null) {
+            this.outputStream.release();
+        }
+    }
+
+    private void skipCompression() {
+        this.identity = true;
+        if (this.outputStream != null) {
+            this.outputStream.discardPending();
+        }
+    }
+
+    private void applyContentLength() {
+        if (this.contentLength >= 0) {
+            super.setContentLengthLong(this.contentLength);
+        }
+    }
+
+    private void addVary() {
+        val vary = getHeaders(HttpHeaders.VARY);
+        for (val value : vary) {
+            if (value.toLowerCase(Locale.ROOT).contains("accept-encoding")) {
+                return;
+            }
+        }
+        super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    private boolean isCompressible() {
+        val contentType = getContentType();
+        if (contentType == null) {
+            return false;
+        }
+
+        val separator = contentType.indexOf(';');
+        val mimeType = (separator < 0 ? contentType : contentType.substring(0, separator)).trim().toLowerCase(Locale.ROOT);
+        return this.mimeTypes.contains(mimeType);
+    }
+}
@@ -0,0 +1,197 @@
+package com.ota.api.note.spring;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * {@link ServletOutputStream} that gzips the response body once it's known to be worth it.
+ * <p>
+ * The first {@code minSize} bytes are held back. A body that ends within them is written as is,
+ * while a larger one asks the {@link GzipHttpServletResponse} whether to compress, based on the
+ * status and content type, before anything reaches the client. A flush before that decision
+ * keeps the bytes held back, so flushing a small response doesn't commit it uncompressed.
+ * The deflater comes from a {@link DeflaterPool}, and the gzip header and trailer are written here.
+ *
+ * @author Miko Chu
+ * @since 2024-05-18
+ */
+public class GzipServletOutputStream extends ServletOutputStream {
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int DEFLATE_BUFFER_SIZE = 8192;
+
+    private enum State { PENDING, GZIP, IDENTITY, FINISHED }
+
+    private final GzipHttpServletResponse response;
+    private final DeflaterPool deflaterPool;
+    private final byte[] pending;
+    private final byte[] single = new byte[1];
+
+    private State state = State.PENDING;
+    private int pendingSize;
+    private ServletOutputStream outputStream;
+    private Deflater deflater;
+    private CRC32 crc;
+    private byte[] deflateBuffer;
+    private long inputSize;
+
+    /**
+     * Constructs a {@link GzipServletOutputStream}.
+     *
+     * @param response     The response deciding whether to compress and providing the original stream.
+     * @param deflaterPool The pool of deflaters.
+     * @param minSize      The size from which the body is compressed.
+     */
+    public GzipServletOutputStream(GzipHttpServletResponse response, DeflaterPool deflaterPool, int minSize) {
+        this.response = response;
+        this.deflaterPool = deflaterPool;
+        this.pending = new byte[minSize];
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    @Override
+    public void setWriteListener(WriteListener listener) {
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        this.single[0] = (byte) b;
+        write(this.single, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        switch (this.state) {
+            case PENDING -> {
+                if (this.pendingSize + len <= this.pending.length) {
+                    System.arraycopy(b, off, this.pending, this.pendingSize, len);
+                    this.pendingSize += len;
+                    return;
+                }
+                start(this.response.startCompression());
+                writeThrough(this.pending, 0, this.pendingSize);
+                writeThrough(b, off, len);
+            }
+            case GZIP, IDENTITY -> writeThrough(b, off, len);
+            case FINISHED -> throw new IOException("The response has already been finished.");
+        }
+    }
+
+    /**
+     * Flushes the bytes written so far to the client, unless compression is still undecided.
+     * A gzip stream is sync-flushed, so the client can decompress everything written so far.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (this.state == State.GZIP) {
+            int written;
+            do {
+                written = this.deflater.deflate(this.deflateBuffer, 0, this.deflateBuffer.length, Deflater.SYNC_FLUSH);
+                this.outputStream.write(this.deflateBuffer, 0, written);
+            } while (written == this.deflateBuffer.length);
+            this.outputStream.flush();
+        } else if (this.state == State.IDENTITY) {
+            this.outputStream.flush();
+        }
+    }
+
+    /**
+     * Writes out the held back bytes or the end of the gzip stream, and returns the deflater to the pool.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    public void finish() throws IOException {
+        try {
+            if (this.state == State.PENDING) {
+                this.response.startIdentity(this.pendingSize);
+                // an empty body leaves the original stream alone, an error page may be using its writer
+                if (this.pendingSize > 0) {
+                    start(false);
+                    writeThrough(this.pending, 0, this.pendingSize);
+                }
+            } else if (this.state == State.GZIP) {
+                this.deflater.finish();
+                while (!this.deflater.finished()) {
+                    int written = this.deflater.deflate(this.deflateBuffer);
+                    this.outputStream.write(this.deflateBuffer, 0, written);
+                }
+                writeTrailer();
+            }
+        } finally {
+            this.state = State.FINISHED;
+            release();
+        }
+    }
+
+    /**
+     * Drops the bytes held back, used when the response is reset or an error is sent.
+     *
+     * @return true if nothing has been written to the client yet.
+     */
+    boolean discardPending() {
+        this.pendingSize = 0;
+        return this.state == State.PENDING;
+    }
+
+    /**
+     * Returns the deflater to the pool, if it hasn't been already.
+     */
+    void release() {
+        this.deflaterPool.release(this.deflater);
+        this.deflater = null;
+    }
+
+    private void start(boolean gzip) throws IOException {
+        this.outputStream = this.response.getResponse().getOutputStream();
+        if (gzip) {
+            this.state = State.GZIP;
+            this.deflater = this.deflaterPool.acquire();
+            this.crc = new CRC32();
+            this.deflateBuffer = new byte[DEFLATE_BUFFER_SIZE];
+            this.outputStream.write(GZIP_HEADER);
+        } else {
+            this.state = State.IDENTITY;
+        }
+    }
+
+    private void writeThrough(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        if (this.state == State.IDENTITY) {
+            this.outputStream.write(b, off, len);
+            return;
+        }
+
+        this.crc.update(b, off, len);
+        this.inputSize += len;
+        this.deflater.setInput(b, off, len);
+        while (!this.deflater.needsInput()) {
+            int written = this.deflater.deflate(this.deflateBuffer, 0, this.deflateBuffer.length, Deflater.NO_FLUSH);
+            this.outputStream.write(this.deflateBuffer, 0, written);
+        }
+    }
+
+    private void writeTrailer() throws IOException {
+        byte[] trailer = new byte[8];
+        writeIntLE(trailer, 0, (int) this.crc.getValue());
+        writeIntLE(trailer, 4, (int) this.inputSize);
+        this.outputStream.write(trailer);
+    }
+
+    private static void writeIntLE(byte[] b, int off, int value) {
+        b[off] = (byte) value;
+        b[off + 1] = (byte) (value >>> 8);
+        b[off + 2] = (byte) (value >>> 16);
+        b[off + 3] = (byte) (value >>> 24);
+    }
+}
@@ -0,0 +1,50 @@
+package com.ota.api.note.spring;
+
+import com.ota.api.note.errors.SimpleError;
+import lombok.val;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * KeysetCursor represents the position of the last item of a page in keyset (seek) pagination.
+ * It is handed to clients as an opaque string, which is passed back to retrieve the next page.
+ *
+ * @param sortBy The sorting criteria the cursor was created for.
+ * @param key    The value of the sort column of the last item, dates are encoded as epoch milliseconds.
+ * @param id     The id of the last item, used as a tie-breaker for equal sort values.
+ *
+ * @author Miko Chu
+ * @since 2024-05-06
+ */
+public record KeysetCursor(String sortBy, String key, long id) {
+    /**
+     * Encodes the cursor into an opaque URL-safe string.
+     *
+     * @return The encoded cursor.
+     */
+    public String encode() {
+        val raw = STR."\{sortBy}:\{id}:\{key}";
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously created by {@link #encode()}.
+     *
+     * @param cursor The encoded cursor.
+     * @return The decoded cursor.
+     * @throws SimpleError if the cursor is malformed.
+     */
+    public static KeysetCursor decode(String cursor) {
+        try {
+            val raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            val parts = raw.split(":", 3);
+            if (parts.length != 3) {
+                throw new SimpleError("Invalid cursor.");
+            }
+            return new KeysetCursor(parts[0], parts[2], Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new SimpleError("Invalid cursor.");
+        }
+    }
+}
@@ -1,13 +1,26 @@
 package com.ota.api.note.utils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.SneakyThrows;
-import lombok.val;
+
+import java.io.OutputStream;
 
 public final class JSONUtils {
+    // ObjectMapper is thread-safe once configured, sharing it keeps the serializer caches warm
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectWriter WRITER = MAPPER.writer();
+
     @SneakyThrows
     public static String stringify(Object json) {
-        val mapper = new ObjectMapper();
-        return mapper.writeValueAsString(json);
+        return WRITER.writeValueAsString(json);
+    }
+
+    /**
+     * Serializes a value as UTF-8 JSON into the given stream with the shared writer.
+     */
+    @SneakyThrows
+    public static void write(OutputStream outputStream, Object json) {
+        WRITER.writeValue(outputStream, json);
     }
 }
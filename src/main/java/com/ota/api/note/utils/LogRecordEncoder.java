@@ -0,0 +1,57 @@
+package com.ota.api.note.utils;
+
+import com.ota.api.note.models.dto.LogDTO;
+import com.ota.api.note.models.entity.Log;
+import com.ota.api.note.spring.CaptureBuffer;
+import com.ota.api.note.spring.CaptureBufferPool;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes {@link LogDTO} as a single-line JSON record.
+ * <p>
+ * The record is serialized by the shared {@link JSONUtils} writer straight into a pooled byte buffer, so
+ * the only copy besides the buffer is the final string, and every field of the DTO is written without
+ * keeping a list of them here. The writer escapes the embedded request and response bodies.
+ * <p>
+ * A buffer grows as large as the record needs, so the JSON is never cut, but only the buffers holding
+ * up to two bodies of the longest logged size and the other fields go back to the pool. The one
+ * that grew for a record full of escaped characters is dropped instead of staying pinned in the pool.
+ *
+ * @author Miko Chu
+ * @since 2024-05-13
+ */
+public final class LogRecordEncoder {
+    private static final int MAX_POOLED = 64;
+    private static final int HEADER_ROOM = 4096;
+    private static final int MAX_RETAINED = 2 * Log.MAX_BODY_LENGTH + HEADER_ROOM;
+    private static final CaptureBufferPool BUFFERS = new CaptureBufferPool(Integer.MAX_VALUE - 8, MAX_POOLED, MAX_RETAINED);
+
+    private LogRecordEncoder() {}
+
+    /**
+     * Encodes a log record as JSON.
+     *
+     * @param logDTO The log record.
+     * @return The JSON record.
+     */
+    public static String encode(LogDTO logDTO) {
+        CaptureBuffer buffer = BUFFERS.acquire();
+        try {
+            encode(logDTO, buffer);
+            return buffer.toString(StandardCharsets.UTF_8);
+        } finally {
+            BUFFERS.release(buffer);
+        }
+    }
+
+    /**
+     * Encodes a log record as UTF-8 JSON into the given buffer.
+     *
+     * @param logDTO The log record.
+     * @param buffer The buffer receiving the JSON record.
+     */
+    public static void encode(LogDTO logDTO, CaptureBuffer buffer) {
+        JSONUtils.write(buffer, logDTO);
+    }
+}
@@ -0,0 +1,75 @@
+package com.ota.api.note.controllers;
+
+import com.ota.api.note.metrics.RequestMetrics;
+import com.ota.api.note.models.dto.LogDTO;
+import com.ota.api.note.models.dto.PaginatedDTO;
+import com.ota.api.note.services.LogService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(LogController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@ExtendWith(SpringExtension.class)
+public class LogControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LogService logService;
+
+    @MockBean
+    private RequestMetrics requestMetrics;
+
+    @Test
+    public void LogController_FindByFilters_ReturnsPageWithCursor() throws Exception {
+        LogDTO log = LogDTO.builder()
+                .id(42L)
+                .tracingId("trace-1")
+                .path("/api/notes/1")
+                .status(404)
+                .build();
+        when(logService.find(argThat(params -> "trace-1".equals(params.getTracingId())
+                && "/api/notes".equals(params.getPath())
+                && params.getMinStatus() == 400
+                && params.getMaxStatus() == 499
+                && "2024-05-18T00:00:00Z".equals(params.getFrom())
+                && params.getPageSize() == 1))).thenReturn(
+                PaginatedDTO.<LogDTO>builder()
+                        .items(List.of(log))
+                        .totalItems(-1)
+                        .totalPages(-1)
+                        .countStrategy("none")
+                        .hasNext(true)
+                        .nextCursor("next")
+                        .build()
+        );
+
+        mockMvc.perform(get("/api/logs")
+                        .param("tracingId", "trace-1")
+                        .param("path", "/api/notes")
+                        .param("minStatus", "400")
+                        .param("maxStatus", "499")
+                        .param("from", "2024-05-18T00:00:00Z")
+                        .param("pageSize", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id", is(42)))
+                .andExpect(jsonPath("$.items[0].status", is(404)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+    }
+}
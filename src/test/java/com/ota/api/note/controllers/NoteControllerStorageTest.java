@@ -0,0 +1,70 @@
+package com.ota.api.note.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ota.api.note.models.entity.Note;
+import com.ota.api.note.models.form.NoteForm;
+import com.ota.api.note.repositories.NoteRepository;
+import com.ota.api.note.services.NoteCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class NoteControllerStorageTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private NoteCache noteCache;
+
+    @Test
+    public void NoteController_CreateNoteWithLongBody_StoresItCompressedAndReadsItBack() throws Exception {
+        String body = "A body well past the inline size. ".repeat(300);
+        NoteForm noteForm = new NoteForm("A long note", body);
+
+        String response = mockMvc.perform(post("/api/notes/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(noteForm)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.body", is(body)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        long id = objectMapper.readTree(response).get("id").asLong();
+
+        Note stored = noteRepository.findById(id).orElseThrow();
+        assertTrue(stored.isBodyCompressed());
+
+        noteCache.invalidate(id);
+        mockMvc.perform(get(STR."/api/notes/\{id}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.body", is(body)));
+    }
+
+    @Test
+    public void NoteController_CreateNoteWithBodyTooLong_ReturnBadRequest() throws Exception {
+        NoteForm noteForm = new NoteForm("A huge note", "x".repeat(Note.MAX_BODY_LENGTH + 1));
+
+        mockMvc.perform(post("/api/notes/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(noteForm)))
+                .andExpect(status().isBadRequest());
+    }
+}
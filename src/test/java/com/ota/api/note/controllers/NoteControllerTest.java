@@ -1,11 +1,17 @@
 package com.ota.api.note.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ota.api.note.errors.SimpleError;
+import com.ota.api.note.metrics.RequestMetrics;
+import com.ota.api.note.models.dto.ExportParamsDTO;
 import com.ota.api.note.models.dto.NoteDTO;
 import com.ota.api.note.models.dto.PaginateParamsDTO;
 import com.ota.api.note.models.dto.PaginatedDTO;
+import com.ota.api.note.models.dto.PartialNoteDTO;
 import com.ota.api.note.models.form.NoteForm;
+import com.ota.api.note.models.form.NoteUpdateForm;
 import com.ota.api.note.services.LogService;
+import com.ota.api.note.services.NoteImportService;
 import com.ota.api.note.services.NoteService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,15 +23,25 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
 
 import static com.ota.api.note.utils.DateUtils.toISOString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -41,9 +57,15 @@ public class NoteControllerTest {
     @MockBean
     private NoteService noteService;
 
+    @MockBean
+    private NoteImportService noteImportService;
+
     @MockBean
     private LogService logService; // this is needed or else the Filters would crash
 
+    @MockBean
+    private RequestMetrics requestMetrics;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Test
@@ -79,6 +101,54 @@ public class NoteControllerTest {
                 .andExpect(jsonPath("$.items").isArray());
     }
 
+    @Test
+    public void NoteController_GetNotesWithMalformedCursor_ReturnBadRequest() throws Exception {
+        PaginateParamsDTO params = new PaginateParamsDTO();
+        params.setCursor("not-a-cursor");
+
+        // mock service method return
+        when(noteService.findAll(params)).thenThrow(new SimpleError("Invalid cursor."));
+
+        mockMvc.perform(get("/api/notes/")
+                        .param("cursor", "not-a-cursor"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Invalid cursor.")));
+    }
+
+    @Test
+    public void NoteController_GetNotesWithFields_OmitsUnselectedFields() throws Exception {
+        PartialNoteDTO item = new PartialNoteDTO();
+        item.setId(1L);
+        item.setTitle("title-1");
+        item.setBody("bo");
+        item.setVersion(2L);
+        List<NoteDTO> items = List.of(item);
+        PaginateParamsDTO params = new PaginateParamsDTO();
+        params.setFields("title,body");
+        params.setSnippet(2);
+
+        // mock service method return
+        when(noteService.findAll(params)).thenReturn(
+                PaginatedDTO.<NoteDTO>builder()
+                        .pageIndex(0)
+                        .items(items)
+                        .totalItems(1)
+                        .totalPages(1)
+                        .build()
+        );
+
+        mockMvc.perform(get("/api/notes/")
+                        .param("fields", "title,body")
+                        .param("snippet", "2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title", is("title-1")))
+                .andExpect(jsonPath("$.items[0].body", is("bo")))
+                .andExpect(jsonPath("$.items[0].dateCreated").doesNotExist())
+                .andExpect(jsonPath("$.items[0].dateUpdated").doesNotExist());
+    }
+
     @Test
     public void NoteController_GetNoteById_ReturnNote() throws Exception {
         NoteDTO note = NoteDTO.builder()
@@ -87,6 +157,7 @@ public class NoteControllerTest {
                 .body("Sample Body")
                 .dateCreated(toISOString(new Date()))
                 .dateUpdated(toISOString(new Date()))
+                .version(3L)
                 .build();
 
         // mock service method return
@@ -98,7 +169,72 @@ public class NoteControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id", is(1)))
                 .andExpect(jsonPath("$.title", is("Sample Title")))
-                .andExpect(jsonPath("$.body", is("Sample Body")));
+                .andExpect(jsonPath("$.body", is("Sample Body")))
+                .andExpect(header().string("ETag", "\"1-v3\""));
+    }
+
+    @Test
+    public void NoteController_GetNoteById_KeepsNullFields() throws Exception {
+        NoteDTO note = NoteDTO.builder()
+                .id(1L)
+                .title("Sample Title")
+                .body("Sample Body")
+                .build();
+
+        // mock service method return
+        when(noteService.findOne(anyLong())).thenReturn(note);
+
+        mockMvc.perform(get("/api/notes/{id}", 1L))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"dateCreated\":null")))
+                .andExpect(content().string(containsString("\"version\":null")));
+    }
+
+    @Test
+    public void NoteController_GetNoteByIdWithMatchingETag_ReturnNotModified() throws Exception {
+        // mock service method return
+        when(noteService.findVersion(1L)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/api/notes/{id}", 1L)
+                        .header("If-None-Match", "\"1-v3\""))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1-v3\""))
+                .andExpect(content().string(""));
+
+        verify(noteService, never()).findOne(anyLong());
+    }
+
+    @Test
+    public void NoteController_GetNotesWithMatchingETag_ReturnNotModified() throws Exception {
+        PaginateParamsDTO params = new PaginateParamsDTO();
+
+        // mock service method return
+        when(noteService.findAll(params)).thenReturn(
+                PaginatedDTO.<NoteDTO>builder()
+                        .pageIndex(0)
+                        .items(List.of(NoteDTO.builder()
+                                .id(1L)
+                                .title("Sample Title")
+                                .dateUpdated("2024-05-01T10:15:30.123Z")
+                                .version(0L)
+                                .build()))
+                        .totalItems(1)
+                        .totalPages(1)
+                        .build()
+        );
+
+        String eTag = mockMvc.perform(get("/api/notes/"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        mockMvc.perform(get("/api/notes/").header("If-None-Match", eTag))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
     }
 
     @Test
@@ -154,4 +290,186 @@ public class NoteControllerTest {
                 .andExpect(jsonPath("$.body", is("I'm the new change around here!")));
     }
 
+    @Test
+    public void NoteController_UpdateNoteWithIfMatch_PassesExpectedVersion() throws Exception {
+        NoteForm noteForm = new NoteForm("Yep you're getting updated...", "I'm the new change around here!");
+
+        // mock service method return
+        when(noteService.update(argThat(note -> note != null && Long.valueOf(3L).equals(note.getVersion()))))
+                .thenReturn(NoteDTO.builder().id(1L).title(noteForm.getTitle()).body(noteForm.getBody()).version(4L).build());
+
+        mockMvc.perform(put("/api/notes/{id}", 1L)
+                        .header("If-Match", "\"1-v3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(noteForm)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-v4\""))
+                .andExpect(jsonPath("$.version", is(4)));
+    }
+
+    @Test
+    public void NoteController_UpdateNoteWithForeignIfMatch_ReturnPreconditionFailed() throws Exception {
+        NoteForm noteForm = new NoteForm("Yep you're getting updated...", "I'm the new change around here!");
+
+        mockMvc.perform(put("/api/notes/{id}", 1L)
+                        .header("If-Match", "W/\"1-v3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(noteForm)))
+                .andDo(print())
+                .andExpect(status().isPreconditionFailed());
+
+        verify(noteService, never()).update(any(NoteDTO.class));
+    }
+
+    @Test
+    public void NoteController_CreateNotesInBulk_ReturnStatusPerItem() throws Exception {
+        List<NoteForm> noteForms = List.of(
+                new NoteForm("A really super duper important note!", "Let's go eat some ice cream!"),
+                new NoteForm("", "No title here")
+        );
+
+        // mock service method return
+        when(noteService.createAll(any())).thenReturn(List.of(NoteDTO.builder()
+                .id(1L)
+                .title(noteForms.getFirst().getTitle())
+                .body(noteForms.getFirst().getBody())
+                .build()));
+
+        mockMvc.perform(post("/api/notes/_bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(noteForms)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.items[0].status", is(201)))
+                .andExpect(jsonPath("$.items[0].note.id", is(1)))
+                .andExpect(jsonPath("$.items[1].status", is(400)))
+                .andExpect(jsonPath("$.items[1].errors").isArray());
+    }
+
+    @Test
+    public void NoteController_UpdateNotesInBulk_ReturnStatusPerItem() throws Exception {
+        List<NoteUpdateForm> noteForms = List.of(
+                new NoteUpdateForm(1L, "An updated note", "With an updated body"),
+                new NoteUpdateForm(2L, "A missing note", "That was deleted meanwhile"),
+                new NoteUpdateForm(3L, "", "No title here")
+        );
+
+        // mock service method return
+        when(noteService.updateAll(any())).thenReturn(Map.of(1L, NoteDTO.builder()
+                .id(1L)
+                .title(noteForms.getFirst().getTitle())
+                .body(noteForms.getFirst().getBody())
+                .version(2L)
+                .build()));
+
+        mockMvc.perform(put("/api/notes/_bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(noteForms)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded", is(1)))
+                .andExpect(jsonPath("$.failed", is(2)))
+                .andExpect(jsonPath("$.items[0].status", is(200)))
+                .andExpect(jsonPath("$.items[0].note.title", is("An updated note")))
+                .andExpect(jsonPath("$.items[1].status", is(404)))
+                .andExpect(jsonPath("$.items[2].status", is(400)));
+
+        verify(noteService).updateAll(argThat(notes -> notes.size() == 2));
+    }
+
+    @Test
+    public void NoteController_CreateNotesInBulkWithNullItem_ReturnBadRequestForTheItem() throws Exception {
+        // mock service method return
+        when(noteService.createAll(any())).thenReturn(List.of(NoteDTO.builder()
+                .id(1L)
+                .title("A really super duper important note!")
+                .body("Let's go eat some ice cream!")
+                .build()));
+
+        mockMvc.perform(post("/api/notes/_bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"title\": \"A really super duper important note!\", \"body\": \"Let's go eat some ice cream!\"}, null]"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.items[0].status", is(201)))
+                .andExpect(jsonPath("$.items[1].status", is(400)))
+                .andExpect(jsonPath("$.items[1].errors[0]", is("Item is required")));
+
+        verify(noteService).createAll(argThat(notes -> notes.size() == 1));
+    }
+
+    @Test
+    public void NoteController_UpdateNotesInBulkWithNullItem_ReturnBadRequestForTheItem() throws Exception {
+        mockMvc.perform(put("/api/notes/_bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[null]"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.items[0].status", is(400)))
+                .andExpect(jsonPath("$.items[0].errors[0]", is("Item is required")));
+
+        verify(noteService, never()).updateAll(any());
+    }
+
+    @Test
+    public void NoteController_DeleteNotesInBulkWithNullId_ReturnBadRequestForTheItem() throws Exception {
+        // mock service method return
+        when(noteService.deleteAll(any())).thenReturn(Set.of(1L));
+
+        mockMvc.perform(delete("/api/notes/_bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, null]"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].status", is(204)))
+                .andExpect(jsonPath("$.items[1].status", is(400)))
+                .andExpect(jsonPath("$.items[1].errors[0]", is("Item is required")));
+
+        verify(noteService).deleteAll(argThat(ids -> !ids.contains(null)));
+    }
+
+    @Test
+    public void NoteController_DeleteNotesInBulk_ReturnNotFoundForMissingIds() throws Exception {
+        // mock service method return
+        when(noteService.deleteAll(any())).thenReturn(Set.of(1L));
+
+        mockMvc.perform(delete("/api/notes/_bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].status", is(204)))
+                .andExpect(jsonPath("$.items[1].status", is(404)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void NoteController_ExportNotes_ReturnNewlineDelimitedJson() throws Exception {
+        // mock service method return
+        doAnswer(invocation -> {
+            Consumer<NoteDTO> consumer = invocation.getArgument(1);
+            consumer.accept(NoteDTO.builder().id(1L).title("title-1").body("body-1").build());
+            consumer.accept(NoteDTO.builder().id(2L).title("title-2").body("body-2").build());
+            return null;
+        }).when(noteService).exportAll(any(ExportParamsDTO.class), any(Consumer.class));
+
+        String content = mockMvc.perform(get("/api/notes/_export"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List<String> lines = content.lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals("title-1", objectMapper.readValue(lines.get(0), NoteDTO.class).getTitle());
+        assertEquals("title-2", objectMapper.readValue(lines.get(1), NoteDTO.class).getTitle());
+    }
 }
@@ -0,0 +1,147 @@
+package com.ota.api.note.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReadWriteRoutingDataSourceTest {
+    private final DataSource primary = database("primary");
+    private final DataSource replica = database("replica");
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void ReadWriteRoutingDataSource_ReadOnlyTransaction_GoesToTheReplica() {
+        Routed routed = routed(List.of(new Replica("replica-1", replica)), "round-robin");
+
+        assertEquals("replica", routed.read());
+        assertEquals("primary", routed.write());
+        assertEquals("primary", routed.jdbc.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    @Test
+    public void ReadWriteRoutingDataSource_ReadAfterWrite_StaysOnThePrimary() {
+        Routed routed = routed(List.of(new Replica("replica-1", replica)), "least-loaded");
+
+        asClient("client-1");
+        routed.write();
+        assertEquals("primary", routed.read());
+
+        asClient("client-2");
+        assertEquals("replica", routed.read());
+    }
+
+    @Test
+    public void ReadWriteRoutingDataSource_WriteWithoutClientId_KeepsReadingTheReplica() {
+        Routed routed = routed(List.of(new Replica("replica-1", replica)), "round-robin");
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        routed.write();
+
+        assertEquals("replica", routed.read());
+    }
+
+    @Test
+    public void ReadWriteRoutingDataSource_ReplicaDown_FailsOverToThePrimary() {
+        Replica down = new Replica("replica-1", new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/missing", "sa", ""));
+        Routed routed = routed(List.of(down), "round-robin");
+
+        assertEquals("primary", routed.read());
+        assertFalse(down.isHealthy());
+
+        routed.routingDataSource.checkReplicas(1);
+        assertFalse(down.isHealthy());
+    }
+
+    @Test
+    public void ReadWriteRoutingDataSource_HealthCheck_BringsTheReplicaBack() {
+        Replica flaky = new Replica("replica-1", replica);
+        Routed routed = routed(List.of(flaky), "round-robin");
+        flaky.markDown(new IllegalStateException("connection refused"));
+
+        assertEquals("primary", routed.read());
+
+        routed.routingDataSource.checkReplicas(1);
+        assertTrue(flaky.isHealthy());
+        assertEquals("replica", routed.read());
+    }
+
+    @Test
+    public void ReadWriteRoutingDataSource_RoundRobin_SharesTheReads() {
+        Routed routed = routed(List.of(new Replica("replica-1", replica), new Replica("replica-2", database("replica-2"))), "round-robin");
+
+        assertEquals(2, IntStream.range(0, 4)
+                .mapToObj(i -> routed.read())
+                .distinct()
+                .count());
+    }
+
+    private Routed routed(List<Replica> replicas, String strategy) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(
+                primary, replicas, strategy, new ReadYourWrites(Duration.ofMinutes(1), 100));
+        return new Routed(routingDataSource, new LazyConnectionDataSourceProxy(routingDataSource));
+    }
+
+    private static void asClient(String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(ReadWriteRoutingDataSource.CLIENT_ID_HEADER, clientId);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(STR."jdbc:h2:mem:routing-\{name};DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(20))");
+        jdbc.execute("DELETE FROM whoami");
+        jdbc.update("INSERT INTO whoami (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    /**
+     * The routing data source as JPA sees it, behind the lazy proxy and a transaction manager.
+     */
+    private static final class Routed {
+        private final ReadWriteRoutingDataSource routingDataSource;
+        private final JdbcTemplate jdbc;
+        private final TransactionTemplate readOnly;
+        private final TransactionTemplate readWrite;
+
+        private Routed(ReadWriteRoutingDataSource routingDataSource, DataSource dataSource) {
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            this.routingDataSource = routingDataSource;
+            this.jdbc = new JdbcTemplate(dataSource);
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+            this.readWrite = new TransactionTemplate(transactionManager);
+        }
+
+        private String read() {
+            return readOnly.execute(status -> jdbc.queryForObject("SELECT name FROM whoami", String.class));
+        }
+
+        private String write() {
+            return readWrite.execute(status -> jdbc.queryForObject("SELECT name FROM whoami", String.class));
+        }
+    }
+}
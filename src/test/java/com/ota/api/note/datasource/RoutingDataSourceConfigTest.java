@@ -0,0 +1,162 @@
+package com.ota.api.note.datasource;
+
+import com.ota.api.note.errors.NotFoundError;
+import com.ota.api.note.models.dto.NoteDTO;
+import com.ota.api.note.models.dto.PaginateParamsDTO;
+import com.ota.api.note.services.NoteCache;
+import com.ota.api.note.services.NoteService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the JPA repositories on the routing data source, with a primary and a replica that are two
+ * separate H2 databases. The replica gets the schema of the primary but not its rows, so a read
+ * tells which database served it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + RoutingDataSourceConfigTest.PRIMARY_URL,
+        "app.datasource.routing.enabled=true",
+        "app.datasource.routing.replicas[0].url=" + RoutingDataSourceConfigTest.REPLICA_URL,
+        "app.datasource.routing.replicas[0].username=sa",
+        "app.datasource.routing.replicas[0].password="
+})
+public class RoutingDataSourceConfigTest {
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-context-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-context-replica;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate PRIMARY = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private static final JdbcTemplate REPLICA = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private NoteCache noteCache;
+
+    @BeforeEach
+    public void setUp() {
+        REPLICA.update("DELETE FROM note");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void RoutingDataSource_Write_GoesToThePrimary() {
+        NoteDTO created = noteService.create(note("written"));
+
+        assertEquals(1, count(PRIMARY, created.getId()));
+        assertEquals(0, count(REPLICA, created.getId()));
+    }
+
+    @Test
+    public void RoutingDataSource_Read_GoesToTheReplica() {
+        NoteDTO created = noteService.create(note("on the primary"));
+        copyToReplica(created.getId(), "on the replica");
+
+        assertEquals("on the replica", listedTitle(created.getId()));
+    }
+
+    @Test
+    public void RoutingDataSource_ReadAfterWrite_StaysOnThePrimary() {
+        asClient("client-1");
+        NoteDTO created = noteService.create(note("on the primary"));
+        copyToReplica(created.getId(), "on the replica");
+
+        assertEquals("on the primary", listedTitle(created.getId()));
+
+        asClient("client-2");
+        assertEquals("on the replica", listedTitle(created.getId()));
+    }
+
+    @Test
+    public void RoutingDataSource_FindOneMissingFromTheCache_ReadsThePrimary() {
+        NoteDTO created = noteService.create(note("on the primary"));
+        copyToReplica(created.getId(), "on the replica");
+        noteCache.invalidate(created.getId());
+
+        assertEquals("on the primary", noteService.findOne(created.getId()).getTitle());
+    }
+
+    @Test
+    public void RoutingDataSource_FindOneDeletedButStillOnTheReplica_ThrowsNotFoundError() {
+        NoteDTO created = noteService.create(note("deleted"));
+        copyToReplica(created.getId(), "deleted");
+
+        noteService.deleteOne(created.getId());
+
+        assertEquals(1, count(REPLICA, created.getId()));
+        assertThrows(NotFoundError.class, () -> noteService.findOne(created.getId()));
+    }
+
+    /**
+     * Reads the title of a note through a listing, which reads from a replica unlike {@code findOne}.
+     */
+    private String listedTitle(long id) {
+        PaginateParamsDTO params = new PaginateParamsDTO();
+        params.setCount("none");
+        params.setPageSize(100);
+        return noteService.findAll(params).getItems().stream()
+                .filter(note -> note.getId() == id)
+                .map(NoteDTO::getTitle)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private void copyToReplica(long id, String title) {
+        Date now = new Date();
+        REPLICA.update("""
+                INSERT INTO note (id, title, body, body_compressed, date_created, date_updated, version)
+                VALUES (?, ?, ?, FALSE, ?, ?, 0)
+                """, id, title, "replicated body", now, now);
+    }
+
+    private static int count(JdbcTemplate jdbc, long id) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM note WHERE id = ?", Integer.class, id);
+    }
+
+    private static void asClient(String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(ReadWriteRoutingDataSource.CLIENT_ID_HEADER, clientId);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static NoteDTO note(String title) {
+        return NoteDTO.builder().title(title).body("a body").build();
+    }
+
+    /**
+     * Copies the schema Hibernate created on the primary to the replica, before the search index
+     * and the note counter read the notes from it once the application is ready.
+     */
+    @TestConfiguration
+    static class ReplicaSchema {
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        @EventListener(ApplicationReadyEvent.class)
+        public void copySchema() {
+            PRIMARY.queryForList("SCRIPT NODATA TABLE PUBLIC.NOTE", String.class).stream()
+                    .filter(statement -> !statement.startsWith("--"))
+                    .forEach(REPLICA::execute);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.ota.api.note.filters;
+
+import com.ota.api.note.Config;
+import com.ota.api.note.services.LogService;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CompressionFilterTest {
+    private static final String BODY = "{\"title\": \"title\", \"body\": \"body\"}".repeat(100);
+
+    private final LogService logService = mock(LogService.class);
+    private final CompressionFilter compressionFilter;
+    private final HttpLoggerFilter httpLoggerFilter;
+
+    public CompressionFilterTest() {
+        Config config = mock(Config.class);
+        when(config.tracingIdKey()).thenReturn("tracing.id");
+        when(config.compression()).thenReturn(new Config.Compression(true, DataSize.ofKilobytes(1), 6, 4, List.of("application/json")));
+        when(config.httpLogger()).thenReturn(new Config.HttpLogger(DataSize.ofKilobytes(64), 4, 1.0, true, Duration.ofSeconds(1), List.of()));
+        compressionFilter = new CompressionFilter(config);
+        httpLoggerFilter = new HttpLoggerFilter(config, logService);
+    }
+
+    @Test
+    public void CompressionFilter_AcceptsGzip_LogsPlainBodyAndSendsGzip() throws Exception {
+        MockHttpServletRequest request = request("gzip, deflate, br");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new MockFilterChain(servlet(), compressionFilter, httpLoggerFilter).doFilter(request, response);
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals(BODY, gunzip(response.getContentAsByteArray()));
+        verify(logService).write(argThat(log -> BODY.equals(log.getResponseBody())));
+    }
+
+    @Test
+    public void CompressionFilter_NoAcceptEncoding_SendsPlainBody() throws Exception {
+        MockHttpServletRequest request = request(null);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new MockFilterChain(servlet(), compressionFilter, httpLoggerFilter).doFilter(request, response);
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(BODY, response.getContentAsString());
+    }
+
+    @Test
+    public void CompressionFilter_AcceptsGzip_ParsesQuality() {
+        assertTrue(CompressionFilter.acceptsGzip("gzip"));
+        assertTrue(CompressionFilter.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertTrue(CompressionFilter.acceptsGzip("*"));
+        assertFalse(CompressionFilter.acceptsGzip("gzip;q=0"));
+        assertFalse(CompressionFilter.acceptsGzip("identity"));
+    }
+
+    private static MockHttpServletRequest request(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes/");
+        request.setAttribute("tracing.id", "trace-1");
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        return request;
+    }
+
+    private static HttpServlet servlet() {
+        return new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType("application/json");
+                resp.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
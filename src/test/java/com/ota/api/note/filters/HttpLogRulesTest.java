@@ -0,0 +1,50 @@
+package com.ota.api.note.filters;
+
+import com.ota.api.note.Config;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HttpLogRulesTest {
+    private final HttpLogRules rules = new HttpLogRules(new Config.HttpLogger(
+            DataSize.ofKilobytes(64),
+            16,
+            0.25,
+            false,
+            Duration.ofSeconds(1),
+            List.of(
+                    new Config.HttpLogger.Rule(List.of("/api/notes/_export"), null, null, null, false),
+                    new Config.HttpLogger.Rule(List.of("/api/notes/**"), "GET", 0.5, true, false)
+            )
+    ));
+
+    @Test
+    public void HttpLogRules_RuleWithoutOverrides_FallsBackToDefaults() {
+        Config.HttpLogger.Rule rule = rules.match("POST", "/api/notes/_export");
+
+        assertEquals(0.25, rule.sampleRate());
+        assertFalse(rule.captureBody());
+    }
+
+    @Test
+    public void HttpLogRules_RuleWithOverrides_KeepsThem() {
+        Config.HttpLogger.Rule rule = rules.match("GET", "/api/notes/1");
+
+        assertEquals(0.5, rule.sampleRate());
+        assertTrue(rule.captureBody());
+    }
+
+    @Test
+    public void HttpLogRules_NoMatchingRule_ReturnsDefaults() {
+        Config.HttpLogger.Rule rule = rules.match("DELETE", "/api/notes/1");
+
+        assertEquals(0.25, rule.sampleRate());
+        assertFalse(rule.captureBody());
+    }
+}
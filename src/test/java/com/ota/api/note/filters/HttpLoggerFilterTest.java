@@ -0,0 +1,124 @@
+package com.ota.api.note.filters;
+
+import com.ota.api.note.Config;
+import com.ota.api.note.services.LogService;
+import com.ota.api.note.spring.CaptureBuffer;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HttpLoggerFilterTest {
+    private final LogService logService = mock(LogService.class);
+    private final HttpLoggerFilter filter;
+
+    public HttpLoggerFilterTest() {
+        Config config = mock(Config.class);
+        when(config.tracingIdKey()).thenReturn("tracing.id");
+        when(config.httpLogger()).thenReturn(new Config.HttpLogger(
+                DataSize.ofKilobytes(64),
+                16,
+                1.0,
+                true,
+                Duration.ofSeconds(1),
+                List.of(
+                        new Config.HttpLogger.Rule(List.of("/swagger-ui/**"), null, 1.0, true, true),
+                        new Config.HttpLogger.Rule(List.of("/api/notes/_export"), null, 1.0, false, false),
+                        new Config.HttpLogger.Rule(List.of(), "GET", 0.0, true, false)
+                )
+        ));
+        filter = new HttpLoggerFilter(config, logService);
+    }
+
+    @Test
+    public void HttpLoggerFilter_ExcludedPath_DoesNotLog() throws Exception {
+        filter.doFilter(request("GET", "/swagger-ui/index.html"), new MockHttpServletResponse(), respond(200));
+
+        verify(logService, never()).write(any());
+    }
+
+    @Test
+    public void HttpLoggerFilter_UnsampledSuccess_DoesNotWrapNorLog() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/notes/1");
+        FilterChain chain = (req, res) -> {
+            assertEquals(request, req);
+            ((MockHttpServletResponse) res).setStatus(200);
+        };
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        verify(logService, never()).write(any());
+    }
+
+    @Test
+    public void HttpLoggerFilter_UnsampledError_LogsWithoutBodies() throws Exception {
+        filter.doFilter(request("GET", "/api/notes/1"), new MockHttpServletResponse(), respond(404));
+
+        verify(logService).write(argThat(log -> log.getStatus() == 404 && log.getResponseBody() == null));
+    }
+
+    @Test
+    public void HttpLoggerFilter_CaptureBodyOff_LogsWithoutBodies() throws Exception {
+        MockHttpServletRequest request = request("POST", "/api/notes/_export");
+        request.setContent("{}".getBytes(StandardCharsets.UTF_8));
+        filter.doFilter(request, new MockHttpServletResponse(), respond(200));
+
+        verify(logService).write(argThat(log -> log.getStatus() == 200 && log.getRequestBody() == null));
+    }
+
+    @Test
+    public void HttpLoggerFilter_SampledRequest_LogsBodies() throws Exception {
+        MockHttpServletRequest request = request("POST", "/api/notes/");
+        request.setContent("{\"title\": \"title\"}".getBytes(StandardCharsets.UTF_8));
+        FilterChain chain = (req, res) -> {
+            req.getInputStream().readAllBytes();
+            res.getOutputStream().write("{\"id\": 1}".getBytes(StandardCharsets.UTF_8));
+        };
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        verify(logService).write(argThat(log -> "{\"title\": \"title\"}".equals(log.getRequestBody())
+                && "{\"id\": 1}".equals(log.getResponseBody())));
+    }
+
+    @Test
+    public void HttpLoggerFilter_BodyPastMaxSize_IsMarkedTruncated() throws Exception {
+        MockHttpServletRequest request = request("POST", "/api/notes/");
+        FilterChain chain = (req, res) -> res.getOutputStream().write(new byte[70 * 1024]);
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        verify(logService).write(argThat(log -> log.getResponseBody().endsWith(CaptureBuffer.TRUNCATED_MARKER)
+                && log.getResponseBody().length() == 64 * 1024 + CaptureBuffer.TRUNCATED_MARKER.length()));
+    }
+
+    @Test
+    public void HttpLoggerFilter_MaxBodySizePastColumnLength_FailsAtStartup() {
+        Config config = mock(Config.class);
+        when(config.httpLogger()).thenReturn(new Config.HttpLogger(
+                DataSize.ofKilobytes(65), 16, 1.0, true, Duration.ofSeconds(1), List.of()));
+
+        assertThrows(IllegalStateException.class, () -> new HttpLoggerFilter(config, logService));
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setAttribute("tracing.id", "trace-1");
+        return request;
+    }
+
+    private static FilterChain respond(int status) {
+        return (req, res) -> ((MockHttpServletResponse) res).setStatus(status);
+    }
+}
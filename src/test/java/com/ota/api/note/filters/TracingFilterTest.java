@@ -0,0 +1,74 @@
+package com.ota.api.note.filters;
+
+import com.ota.api.note.Config;
+import com.ota.api.note.utils.TraceIdGenerator;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TracingFilterTest {
+    private final TracingFilter filter;
+
+    public TracingFilterTest() {
+        Config config = mock(Config.class);
+        when(config.tracingIdKey()).thenReturn("tracing.id");
+        filter = new TracingFilter(config);
+    }
+
+    @Test
+    public void TracingFilter_Traceparent_UsesTraceId() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes/1");
+        request.addHeader("traceparent", "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+        request.addHeader("X-Request-Id", "ignored");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> mdc = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> mdc.set(MDC.get("tracing.id")));
+
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", request.getAttribute("tracing.id"));
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", response.getHeader("X-Request-Id"));
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", mdc.get());
+        assertNull(MDC.get("tracing.id"));
+    }
+
+    @Test
+    public void TracingFilter_RequestId_UsesIt() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes/1");
+        request.addHeader("traceparent", "00-00000000000000000000000000000000-00f067aa0ba902b7-01");
+        request.addHeader("X-Request-Id", "req-42.a_b");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {});
+
+        assertEquals("req-42.a_b", response.getHeader("X-Request-Id"));
+    }
+
+    @Test
+    public void TracingFilter_InvalidRequestId_GeneratesId() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes/1");
+        request.addHeader("X-Request-Id", "id\nforged log line");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {});
+
+        assertEquals(TraceIdGenerator.LENGTH, response.getHeader("X-Request-Id").length());
+    }
+
+    @Test
+    public void TracingFilter_ParseTraceparent_RejectsMalformed() {
+        assertNull(TracingFilter.parseTraceparent("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7"));
+        assertNull(TracingFilter.parseTraceparent("00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01"));
+        assertNull(TracingFilter.parseTraceparent("ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01"));
+        assertNull(TracingFilter.parseTraceparent("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-extra"));
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736",
+                TracingFilter.parseTraceparent("01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-extra"));
+    }
+}
@@ -0,0 +1,164 @@
+package com.ota.api.note.logstore;
+
+import com.ota.api.note.Config;
+import com.ota.api.note.models.dto.LogDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SegmentLogStoreTest {
+    private static final Instant START = Instant.parse("2024-05-18T00:00:00Z");
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void SegmentLogStore_AppendAndScan_ReturnsRecordsInOrder() throws IOException {
+        SegmentLogStore store = open(DataSize.ofKilobytes(64), DataSize.ofMegabytes(1));
+        for (int i = 0; i < 10; i++) {
+            store.append(log(i));
+        }
+
+        List<LogDTO> logs = scan(store, Long.MIN_VALUE, Long.MAX_VALUE, null, -1);
+        assertEquals(10, logs.size());
+        assertEquals("trace-3", logs.get(3).getTracingId());
+        assertEquals("/api/notes/3", logs.get(3).getPath());
+        assertEquals(START.plusSeconds(3).toString(), logs.get(3).getTimestamp());
+        assertEquals(200, logs.get(3).getStatus());
+        assertNull(logs.get(3).getResponseBody());
+    }
+
+    @Test
+    public void SegmentLogStore_ScanByTracingIdAndTime_ReturnsOnlyMatches() throws IOException {
+        SegmentLogStore store = open(DataSize.ofKilobytes(4), DataSize.ofMegabytes(1));
+        for (int i = 0; i < 200; i++) {
+            store.append(log(i));
+        }
+
+        List<LogDTO> byTracingId = scan(store, Long.MIN_VALUE, Long.MAX_VALUE, "trace-150", -1);
+        assertEquals(1, byTracingId.size());
+        assertEquals("/api/notes/150", byTracingId.getFirst().getPath());
+
+        List<LogDTO> byTime = scan(store, START.plusSeconds(40).toEpochMilli(), START.plusSeconds(59).toEpochMilli(), null, -1);
+        assertEquals(20, byTime.size());
+        assertEquals("trace-40", byTime.getFirst().getTracingId());
+        assertEquals("trace-59", byTime.getLast().getTracingId());
+    }
+
+    @Test
+    public void SegmentLogStore_ScanAfterId_ContinuesFromCursor() throws IOException {
+        SegmentLogStore store = open(DataSize.ofKilobytes(4), DataSize.ofMegabytes(1));
+        for (int i = 0; i < 100; i++) {
+            store.append(log(i));
+        }
+
+        List<LogDTO> all = scan(store, Long.MIN_VALUE, Long.MAX_VALUE, null, -1);
+        List<LogDTO> rest = scan(store, Long.MIN_VALUE, Long.MAX_VALUE, null, all.get(49).getId());
+        assertEquals(50, rest.size());
+        assertEquals("trace-50", rest.getFirst().getTracingId());
+        assertThrows(IllegalArgumentException.class, () -> scan(store, Long.MIN_VALUE, Long.MAX_VALUE, null, all.get(49).getId() + 1));
+    }
+
+    @Test
+    public void SegmentLogStore_Reopen_RecoversSegmentsAndDropsTornRecord() throws IOException {
+        SegmentLogStore store = open(DataSize.ofKilobytes(4), DataSize.ofMegabytes(1));
+        for (int i = 0; i < 100; i++) {
+            store.append(log(i));
+        }
+        LogDTO last = scan(store, Long.MIN_VALUE, Long.MAX_VALUE, null, -1).getLast();
+        store.close();
+
+        // corrupts the checksum of the last record, as a crash in the middle of a write would
+        Path lastSegment;
+        try (Stream<Path> files = Files.list(this.directory)) {
+            lastSegment = files.sorted().toList().getLast();
+        }
+        try (FileChannel channel = FileChannel.open(lastSegment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4), (int) (long) last.getId() + 4);
+        }
+
+        SegmentLogStore reopened = open(DataSize.ofKilobytes(4), DataSize.ofMegabytes(1));
+        List<LogDTO> logs = scan(reopened, Long.MIN_VALUE, Long.MAX_VALUE, null, -1);
+        assertEquals(99, logs.size());
+        assertTrue(reopened.segmentCount() > 1);
+
+        reopened.append(log(100));
+        assertEquals("trace-100", scan(reopened, Long.MIN_VALUE, Long.MAX_VALUE, null, -1).getLast().getTracingId());
+    }
+
+    @Test
+    public void SegmentLogStore_ExceedMaxTotalSize_DeletesOldestSegments() throws IOException {
+        SegmentLogStore store = open(DataSize.ofKilobytes(4), DataSize.ofKilobytes(16));
+        for (int i = 0; i < 500; i++) {
+            store.append(log(i));
+        }
+
+        assertTrue(store.segmentCount() <= 4);
+        List<LogDTO> logs = scan(store, Long.MIN_VALUE, Long.MAX_VALUE, null, -1);
+        assertEquals("trace-499", logs.getLast().getTracingId());
+        assertTrue(scan(store, Long.MIN_VALUE, Long.MAX_VALUE, "trace-0", -1).isEmpty());
+    }
+
+    @Test
+    public void SegmentLogStore_OpenWithExpiredSegments_DeletesThem() throws IOException {
+        SegmentLogStore store = open(DataSize.ofKilobytes(4), DataSize.ofMegabytes(1));
+        for (int i = 0; i < 100; i++) {
+            store.append(log(i));
+        }
+        store.close();
+
+        Clock later = Clock.fixed(START.plus(Duration.ofDays(8)), ZoneOffset.UTC);
+        SegmentLogStore reopened = new SegmentLogStore(settings(DataSize.ofKilobytes(4), DataSize.ofMegabytes(1)), later);
+        reopened.open();
+
+        // only the active segment is kept
+        assertEquals(1, reopened.segmentCount());
+    }
+
+    private SegmentLogStore open(DataSize segmentSize, DataSize maxTotalSize) throws IOException {
+        SegmentLogStore store = new SegmentLogStore(settings(segmentSize, maxTotalSize), Clock.fixed(START, ZoneOffset.UTC));
+        store.open();
+        return store;
+    }
+
+    private Config.LogStore settings(DataSize segmentSize, DataSize maxTotalSize) {
+        return new Config.LogStore("segment", this.directory.toString(), segmentSize, maxTotalSize, Duration.ofDays(7), 8);
+    }
+
+    private static List<LogDTO> scan(SegmentLogStore store, long from, long to, String tracingId, long afterId) {
+        List<LogDTO> logs = new ArrayList<>();
+        store.scan(from, to, tracingId, afterId, logs::add);
+        return logs;
+    }
+
+    private static LogDTO log(int i) {
+        return LogDTO.builder()
+                .tracingId(STR."trace-\{i}")
+                .ipAddress("127.0.0.1")
+                .method("GET")
+                .path(STR."/api/notes/\{i}")
+                .timestamp(START.plusSeconds(i).toString())
+                .status(200)
+                .requestBody(STR."{\"title\": \"title-\{i}\", \"body\": \"body-\{i}\"}")
+                .build();
+    }
+}
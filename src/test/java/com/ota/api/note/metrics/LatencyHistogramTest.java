@@ -0,0 +1,40 @@
+package com.ota.api.note.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyHistogramTest {
+    @Test
+    public void LatencyHistogram_Index_IsContinuousAndMonotonic() {
+        int previous = -1;
+        for (long micros = 0; micros < 1 << 20; micros++) {
+            int index = LatencyHistogram.indexOf(micros);
+            assertTrue(index == previous || index == previous + 1, STR."gap at \{micros}µs");
+            previous = index;
+        }
+    }
+
+    @Test
+    public void LatencyHistogram_Quantiles_WithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1_000_000L);
+        }
+
+        double[] values = histogram.quantileSeconds(0.5, 0.9, 0.99, 0.999);
+
+        assertEquals(1000, histogram.count());
+        assertEquals(0.5, values[0], 0.5 * 0.04);
+        assertEquals(0.9, values[1], 0.9 * 0.04);
+        assertEquals(0.99, values[2], 0.99 * 0.04);
+        assertEquals(0.999, values[3], 0.999 * 0.04);
+        assertEquals(500.5, histogram.sumSeconds(), 0.001);
+    }
+
+    @Test
+    public void LatencyHistogram_Empty_ReportsNaN() {
+        assertTrue(Double.isNaN(new LatencyHistogram().quantileSeconds(0.5)[0]));
+    }
+}
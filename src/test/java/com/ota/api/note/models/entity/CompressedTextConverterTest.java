@@ -0,0 +1,38 @@
+package com.ota.api.note.models.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompressedTextConverterTest {
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    @Test
+    public void CompressedTextConverter_RoundTrip_RestoresTheText() {
+        String text = "Eggs, milk, bread, coffee and a few apples for the kids. ".repeat(200) + "café 😀";
+
+        byte[] data = converter.convertToDatabaseColumn(text);
+
+        assertEquals(text, converter.convertToEntityAttribute(data));
+        assertTrue(data.length * 4 < text.length());
+    }
+
+    @Test
+    public void CompressedTextConverter_Null_StaysNull() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    public void CompressedTextConverter_TruncatedData_ThrowsIllegalState() {
+        byte[] data = converter.convertToDatabaseColumn("a rather long note body ".repeat(100));
+
+        assertThrows(IllegalStateException.class,
+                () -> converter.convertToEntityAttribute(Arrays.copyOf(data, data.length / 2)));
+    }
+}
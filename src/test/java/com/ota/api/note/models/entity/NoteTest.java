@@ -0,0 +1,43 @@
+package com.ota.api.note.models.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NoteTest {
+    @Test
+    public void Note_SetShortBody_StoresItInline() {
+        Note note = new Note();
+        note.setFullBody("short body", 16);
+
+        assertEquals("short body", note.getBody());
+        assertFalse(note.isBodyCompressed());
+        assertNull(note.getBodyData());
+        assertEquals("short body", note.getFullBody());
+    }
+
+    @Test
+    public void Note_SetLongBody_KeepsItsPreviewInline() {
+        Note note = new Note();
+        note.setFullBody("a body longer than the inline size", 6);
+
+        assertEquals("a body", note.getBody());
+        assertTrue(note.isBodyCompressed());
+        assertEquals("a body longer than the inline size", note.getFullBody());
+
+        note.setFullBody("short", 6);
+        assertFalse(note.isBodyCompressed());
+        assertNull(note.getBodyData());
+    }
+
+    @Test
+    public void Note_SetLongBody_DoesNotSplitASurrogatePair() {
+        Note note = new Note();
+        note.setFullBody("abcde😀fgh", 6);
+
+        assertEquals("abcde", note.getBody());
+    }
+}
@@ -0,0 +1,84 @@
+package com.ota.api.note.repositories;
+
+import com.ota.api.note.models.entity.Log;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class LogQueryRepositoryImplTest {
+    @Autowired
+    private LogRepository logRepository;
+
+    @Test
+    public void LogQueryRepository_FindByTracingId_ReturnsPagesInIdOrder() {
+        List<Log> saved = logRepository.saveAll(List.of(
+                log("trace-pages", "/api/notes/1", 200),
+                log("trace-other", "/api/notes/2", 200),
+                log("trace-pages", "/api/notes/3", 404),
+                log("trace-pages", "/api/notes/4", 200)
+        ));
+
+        List<Log> first = logRepository.findByCriteria(criteria("trace-pages", null, 0, Integer.MAX_VALUE, null, -1), 2);
+        List<Log> second = logRepository.findByCriteria(criteria("trace-pages", null, 0, Integer.MAX_VALUE, null, first.getLast().getId()), 2);
+
+        assertEquals(List.of(saved.get(0).getId(), saved.get(2).getId()), ids(first));
+        assertEquals(List.of(saved.get(3).getId()), ids(second));
+    }
+
+    @Test
+    public void LogQueryRepository_FindByPathPrefix_EscapesWildcards() {
+        List<Log> saved = logRepository.saveAll(List.of(
+                log("trace-path", "/prefix_test/a", 200),
+                log("trace-path", "/prefixXtest/b", 200),
+                log("trace-path", "/prefix%test/c", 200)
+        ));
+
+        assertEquals(List.of(saved.get(0).getId()),
+                ids(logRepository.findByCriteria(criteria(null, "/prefix_test", 0, Integer.MAX_VALUE, null, -1), 10)));
+        assertEquals(List.of(saved.get(2).getId()),
+                ids(logRepository.findByCriteria(criteria(null, "/prefix%", 0, Integer.MAX_VALUE, null, -1), 10)));
+    }
+
+    @Test
+    public void LogQueryRepository_FindByStatusAndWindow_CombinesFilters() {
+        Instant before = Instant.now().minus(1, ChronoUnit.MINUTES);
+        List<Log> saved = logRepository.saveAll(List.of(
+                log("trace-window", "/api/notes", 200),
+                log("trace-window", "/api/notes", 500),
+                log("trace-window", "/api/notes", 404)
+        ));
+
+        assertEquals(List.of(saved.get(1).getId(), saved.get(2).getId()),
+                ids(logRepository.findByCriteria(criteria("trace-window", null, 400, 599, before, -1), 10)));
+        assertEquals(List.of(saved.get(2).getId()),
+                ids(logRepository.findByCriteria(criteria("trace-window", null, 400, 499, before, -1), 10)));
+        assertTrue(logRepository.findByCriteria(
+                criteria("trace-window", null, 0, Integer.MAX_VALUE, Instant.now().plus(1, ChronoUnit.HOURS), -1), 10).isEmpty());
+    }
+
+    private static LogCriteria criteria(String tracingId, String pathPrefix, int minStatus, int maxStatus, Instant from, long afterId) {
+        return new LogCriteria(tracingId, pathPrefix, minStatus, maxStatus, from, null, afterId, 10);
+    }
+
+    private static Log log(String tracingId, String path, int status) {
+        return Log.builder()
+                .tracingId(tracingId)
+                .ipAddress("127.0.0.1")
+                .method("GET")
+                .path(path)
+                .status(status)
+                .build();
+    }
+
+    private static List<Long> ids(List<Log> logs) {
+        return logs.stream().map(Log::getId).toList();
+    }
+}
@@ -0,0 +1,45 @@
+package com.ota.api.note.repositories;
+
+import com.ota.api.note.errors.SimpleError;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NoteSelectionTest {
+    @Test
+    public void NoteSelection_ParseEmpty_SelectsEveryField() {
+        NoteSelection selection = NoteSelection.parse("", null);
+
+        assertFalse(selection.isPartial());
+        assertTrue(selection.includes("body"));
+    }
+
+    @Test
+    public void NoteSelection_ParseFields_SelectsOnlyThose() {
+        NoteSelection selection = NoteSelection.parse(" title, dateUpdated ,", 20);
+
+        assertTrue(selection.isPartial());
+        assertEquals(Set.of("title", "dateUpdated"), selection.fields());
+        assertFalse(selection.includes("body"));
+        assertEquals(20, selection.snippet());
+    }
+
+    @Test
+    public void NoteSelection_With_AddsTheSortField() {
+        NoteSelection selection = NoteSelection.parse("body", null).with("dateCreated");
+
+        assertTrue(selection.includes("dateCreated"));
+        assertFalse(selection.includes("title"));
+    }
+
+    @Test
+    public void NoteSelection_ParseInvalid_ThrowsSimpleError() {
+        assertThrows(SimpleError.class, () -> NoteSelection.parse("title,password", null));
+        assertThrows(SimpleError.class, () -> NoteSelection.parse("", 0));
+    }
+}
@@ -0,0 +1,148 @@
+package com.ota.api.note.services;
+
+import com.ota.api.note.Config;
+import com.ota.api.note.models.dto.LogDTO;
+import com.ota.api.note.repositories.LogBatchRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogPipelineTest {
+    private final List<Integer> batches = new CopyOnWriteArrayList<>();
+
+    private final LogBatchRepository repository = new LogBatchRepository(null) {
+        @Override
+        public void insertAll(List<LogDTO> logs) {
+            batches.add(logs.size());
+        }
+    };
+
+    @Test
+    public void LogPipeline_Stop_DrainsQueuedEntriesInBatches() throws Exception {
+        LogPipeline pipeline = new LogPipeline(repository, settings(100, 4));
+        pipeline.start();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(pipeline.offer(log(i)));
+        }
+        pipeline.stop();
+
+        LogPipeline.Stats stats = pipeline.stats();
+        assertEquals(10, stats.enqueued());
+        assertEquals(10, stats.written());
+        assertEquals(0, stats.dropped());
+        assertEquals(0, stats.queued());
+        assertTrue(batches.stream().allMatch(size -> size <= 4));
+    }
+
+    @Test
+    public void LogPipeline_OfferWhenFull_DropsEntry() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LogBatchRepository blockingRepository = new LogBatchRepository(null) {
+            @Override
+            public void insertAll(List<LogDTO> logs) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        LogPipeline pipeline = new LogPipeline(blockingRepository, settings(2, 1));
+        pipeline.start();
+
+        // the writer takes the first entry and blocks, the next two fill up the queue
+        assertTrue(pipeline.offer(log(1)));
+        writing.await();
+        assertTrue(pipeline.offer(log(2)));
+        assertTrue(pipeline.offer(log(3)));
+        assertFalse(pipeline.offer(log(4)));
+
+        LogPipeline.Stats stats = pipeline.stats();
+        assertEquals(3, stats.enqueued());
+        assertEquals(1, stats.dropped());
+        assertEquals(2, stats.queued());
+
+        release.countDown();
+        pipeline.stop();
+        assertEquals(3, pipeline.stats().written());
+    }
+
+    @Test
+    public void LogPipeline_WriterInterrupted_DrainsQueueAndExits() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        LogBatchRepository blockingRepository = new LogBatchRepository(null) {
+            @Override
+            public void insertAll(List<LogDTO> logs) {
+                batches.add(logs.size());
+                writing.countDown();
+                if (batches.size() == 1) {
+                    try {
+                        new CountDownLatch(1).await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        LogPipeline pipeline = new LogPipeline(blockingRepository, settings(100, 4));
+        pipeline.start();
+
+        // the writer blocks on the first entry while the others queue up
+        assertTrue(pipeline.offer(log(0)));
+        writing.await();
+        for (int i = 1; i < 10; i++) {
+            assertTrue(pipeline.offer(log(i)));
+        }
+
+        pipeline.writer().interrupt();
+        pipeline.writer().join(5000);
+
+        assertFalse(pipeline.writer().isAlive());
+        assertEquals(10, pipeline.stats().written());
+        assertEquals(0, pipeline.stats().queued());
+    }
+
+    @Test
+    public void LogPipeline_OfferAfterStop_DropsEntry() throws Exception {
+        LogPipeline pipeline = new LogPipeline(repository, settings(10, 2));
+        pipeline.start();
+        pipeline.stop();
+
+        assertFalse(pipeline.offer(log(1)));
+        assertEquals(1, pipeline.stats().dropped());
+    }
+
+    @Test
+    public void LogPipeline_VirtualThreads_WritesFromVirtualThread() throws Exception {
+        LogPipeline pipeline = new LogPipeline(repository, settings(10, 2), true);
+        pipeline.start();
+        assertTrue(pipeline.isVirtual());
+
+        assertTrue(pipeline.offer(log(1)));
+        pipeline.stop();
+        assertEquals(1, pipeline.stats().written());
+    }
+
+    private static Config.LogPipeline settings(int capacity, int batchSize) {
+        return new Config.LogPipeline(capacity, batchSize, Duration.ofMillis(20), Duration.ofSeconds(5));
+    }
+
+    private static LogDTO log(int i) {
+        return LogDTO.builder()
+                .tracingId(STR."trace-\{i}")
+                .method("GET")
+                .path("/api/notes/")
+                .status(200)
+                .build();
+    }
+}
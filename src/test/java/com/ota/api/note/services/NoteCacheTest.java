@@ -0,0 +1,64 @@
+package com.ota.api.note.services;
+
+import com.ota.api.note.Config;
+import com.ota.api.note.models.dto.NoteDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NoteCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void NoteCache_Get_LoadsOnlyOnMiss() {
+        NoteCache noteCache = new NoteCache(new Config.NoteCache(true, 100, Duration.ofMinutes(1)));
+
+        assertEquals("title-1", noteCache.get(1L, this::load).orElseThrow().getTitle());
+        assertEquals("title-1", noteCache.get(1L, this::load).orElseThrow().getTitle());
+
+        NoteCache.Stats stats = noteCache.stats();
+        assertEquals(1, loads.get());
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+    }
+
+    @Test
+    public void NoteCache_PutAndInvalidate_WritesThrough() {
+        NoteCache noteCache = new NoteCache(new Config.NoteCache(true, 100, Duration.ofMinutes(1)));
+        noteCache.put(NoteDTO.builder().id(1L).title("updated").build());
+
+        assertEquals("updated", noteCache.get(1L, this::load).orElseThrow().getTitle());
+        assertEquals(0, loads.get());
+
+        noteCache.invalidate(1L);
+        assertEquals("title-1", noteCache.get(1L, this::load).orElseThrow().getTitle());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void NoteCache_GetMissingNote_IsNotCached() {
+        NoteCache noteCache = new NoteCache(new Config.NoteCache(true, 100, Duration.ofMinutes(1)));
+
+        assertTrue(noteCache.get(1L, id -> Optional.empty()).isEmpty());
+        assertEquals(0, noteCache.stats().size());
+    }
+
+    @Test
+    public void NoteCache_Disabled_AlwaysLoads() {
+        NoteCache noteCache = new NoteCache(new Config.NoteCache(false, 100, Duration.ofMinutes(1)));
+
+        noteCache.get(1L, this::load);
+        noteCache.get(1L, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    private Optional<NoteDTO> load(Long id) {
+        loads.incrementAndGet();
+        return Optional.of(NoteDTO.builder().id(id).title(STR."title-\{id}").build());
+    }
+}
@@ -0,0 +1,54 @@
+package com.ota.api.note.services;
+
+import com.ota.api.note.Config;
+import com.ota.api.note.repositories.NoteRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class NoteCounterTest {
+    private final NoteRepository noteRepository = mock(NoteRepository.class);
+    private final AtomicInteger counts = new AtomicInteger();
+    private final NoteCounter noteCounter;
+
+    public NoteCounterTest() {
+        Config config = mock(Config.class);
+        when(config.noteCount()).thenReturn(new Config.NoteCount(100, Duration.ofMinutes(1)));
+        noteCounter = new NoteCounter(noteRepository, config);
+    }
+
+    @Test
+    public void NoteCounter_Total_CountsOnceThenTracksWrites() {
+        when(noteRepository.count()).thenReturn(10L);
+
+        assertEquals(10, noteCounter.total());
+        noteCounter.created(3);
+        noteCounter.deleted(1);
+        assertEquals(12, noteCounter.total());
+
+        verify(noteRepository, times(1)).count();
+    }
+
+    @Test
+    public void NoteCounter_CountMatching_CachedUntilWrite() {
+        assertEquals(5, noteCounter.countMatching("milk", this::count));
+        assertEquals(5, noteCounter.countMatching("milk", this::count));
+        assertEquals(1, counts.get());
+
+        noteCounter.updated();
+        assertEquals(5, noteCounter.countMatching("milk", this::count));
+        assertEquals(2, counts.get());
+    }
+
+    private long count(String query) {
+        counts.incrementAndGet();
+        return 5;
+    }
+}
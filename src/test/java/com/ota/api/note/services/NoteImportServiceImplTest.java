@@ -0,0 +1,89 @@
+package com.ota.api.note.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ota.api.note.Config;
+import com.ota.api.note.models.dto.ImportResultDTO;
+import com.ota.api.note.models.dto.NoteDTO;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NoteImportServiceImplTest {
+    private final List<Integer> chunks = new ArrayList<>();
+    private final NoteImportService noteImportService;
+
+    public NoteImportServiceImplTest() {
+        NoteService noteService = mock(NoteService.class);
+        when(noteService.createAll(any())).thenAnswer(invocation -> {
+            List<NoteDTO> notes = invocation.getArgument(0);
+            chunks.add(notes.size());
+            return notes;
+        });
+
+        Config config = mock(Config.class);
+        when(config.noteImport()).thenReturn(new Config.NoteImport(2, 10));
+
+        noteImportService = new NoteImportServiceImpl(
+                noteService,
+                new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                config
+        );
+    }
+
+    @Test
+    public void NoteImportService_ImportNdjson_CommitsInChunks() throws Exception {
+        ImportResultDTO result = importAll("""
+                {"title": "title-1", "body": "body-1"}
+                {"title": "title-2", "body": "body-2"}
+                {"title": "t", "body": "body-3"}
+                {"title": "title-4", "body": "body-4"}
+                {"title": "title-5", "body": "body-5"}
+                """);
+
+        assertEquals(4, result.getAccepted());
+        assertEquals(1, result.getRejected());
+        assertFalse(result.isAborted());
+        assertEquals(List.of(2, 2), chunks);
+        assertEquals(2, result.getErrors().getFirst().getIndex());
+        assertEquals(3, result.getErrors().getFirst().getLine());
+    }
+
+    @Test
+    public void NoteImportService_ImportJsonArray_AcceptsEveryElement() throws Exception {
+        ImportResultDTO result = importAll("""
+                [{"title": "title-1", "body": "body-1"}, 42, {"title": "title-2", "body": "body-2"}, {"title": "title-3", "body": "body-3"}]
+                """);
+
+        assertEquals(3, result.getAccepted());
+        assertEquals(1, result.getRejected());
+        assertEquals(List.of(2, 1), chunks);
+    }
+
+    @Test
+    public void NoteImportService_ImportMalformedJson_KeepsCommittedRecordsAndAborts() throws Exception {
+        ImportResultDTO result = importAll("""
+                {"title": "title-1", "body": "body-1"}
+                {"title": "title-2", "body":
+                """);
+
+        assertTrue(result.isAborted());
+        assertEquals(1, result.getAccepted());
+        assertEquals(1, result.getRejected());
+    }
+
+    private ImportResultDTO importAll(String content) throws Exception {
+        return noteImportService.importAll(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
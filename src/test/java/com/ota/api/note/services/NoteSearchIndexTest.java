@@ -0,0 +1,81 @@
+package com.ota.api.note.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NoteSearchIndexTest {
+    private static final Date DATE = new Date(1715000000000L);
+
+    private final NoteSearchIndex searchIndex = new NoteSearchIndex(null);
+
+    @Test
+    public void NoteSearchIndex_Tokenize_SplitsOnNonAlphanumerics() {
+        assertEquals(List.of("i", "m", "a", "todo", "42"), NoteSearchIndex.tokenize("I'm a TODO-42!"));
+        assertEquals(List.of(), NoteSearchIndex.tokenize("  --  "));
+    }
+
+    @Test
+    public void NoteSearchIndex_Search_MatchesEveryTermByPrefix() {
+        searchIndex.index(1L, "Groceries", "Buy ice cream and milk", DATE, DATE);
+        searchIndex.index(2L, "Ice cream", "Ice cream ice cream", DATE, DATE);
+        searchIndex.index(3L, "Work", "Finish the report", DATE, DATE);
+
+        assertEquals(List.of(1L, 2L), ids(searchIndex.search("ice CREAM")));
+        assertEquals(List.of(1L), ids(searchIndex.search("groc mil")));
+        assertTrue(searchIndex.search("ice report").isEmpty());
+    }
+
+    @Test
+    public void NoteSearchIndex_Search_RanksFrequentTermsHigher() {
+        searchIndex.index(1L, "Groceries", "Buy ice cream and milk", DATE, DATE);
+        searchIndex.index(2L, "Ice cream", "Ice cream ice cream", DATE, DATE);
+
+        NoteSearchIndex.Match best = searchIndex.search("cream").stream()
+                .max(Comparator.comparingDouble(NoteSearchIndex.Match::score))
+                .orElseThrow();
+        assertEquals(2L, best.id());
+    }
+
+    @Test
+    public void NoteSearchIndex_IndexAndRemove_KeepsPostingsInSync() {
+        searchIndex.index(1L, "Old title", "Old body", DATE, DATE);
+        searchIndex.index(1L, "New title", "New body", DATE, DATE);
+
+        assertTrue(searchIndex.search("old").isEmpty());
+        assertEquals(List.of(1L), ids(searchIndex.search("new")));
+
+        searchIndex.remove(1L);
+        assertTrue(searchIndex.search("new").isEmpty());
+    }
+
+    @Test
+    public void NoteSearchIndex_MatchOrder_SortsBySortKeyThenId() {
+        searchIndex.index(3L, "Beta", "shared", new Date(3000), new Date(1000));
+        searchIndex.index(1L, "Beta", "shared", new Date(2000), new Date(3000));
+        searchIndex.index(2L, "Alpha", "shared shared", new Date(2000), new Date(2000));
+
+        List<NoteSearchIndex.Match> matches = searchIndex.search("shared");
+
+        assertEquals(List.of(2L, 1L, 3L), ordered(matches, "title"));
+        assertEquals(List.of(1L, 2L, 3L), ordered(matches, "dateCreated"));
+        assertEquals(List.of(3L, 2L, 1L), ordered(matches, "dateUpdated"));
+        assertEquals(2L, ordered(matches, "relevance").getFirst());
+    }
+
+    private static List<Long> ordered(List<NoteSearchIndex.Match> matches, String sortBy) {
+        return matches.stream()
+                .sorted(NoteSearchIndex.Match.order(sortBy))
+                .map(NoteSearchIndex.Match::id)
+                .toList();
+    }
+
+    private static List<Long> ids(List<NoteSearchIndex.Match> matches) {
+        return matches.stream().map(NoteSearchIndex.Match::id).sorted().toList();
+    }
+}
@@ -0,0 +1,283 @@
+package com.ota.api.note.services;
+
+import com.ota.api.note.errors.NotFoundError;
+import com.ota.api.note.errors.SimpleError;
+import com.ota.api.note.models.dto.ExportParamsDTO;
+import com.ota.api.note.models.dto.NoteDTO;
+import com.ota.api.note.models.dto.PaginateParamsDTO;
+import com.ota.api.note.models.dto.PaginatedDTO;
+import com.ota.api.note.models.entity.Note;
+import com.ota.api.note.repositories.NoteRepository;
+import com.ota.api.note.spring.KeysetCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class NoteServiceImplTest {
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private NoteCache noteCache;
+
+    @Autowired
+    private NoteSearchIndex searchIndex;
+
+    @Autowired
+    private NoteCounter noteCounter;
+
+    @Autowired
+    private NoteRepository noteRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void NoteService_CreateAllRolledBack_LeavesIndexAndCacheUntouched() {
+        List<NoteDTO> created = new ArrayList<>();
+        rollingBack(() -> created.addAll(noteService.createAll(List.of(note("rollback", "quixotic body")))));
+
+        assertTrue(noteCache.getIfPresent(created.getFirst().getId()).isEmpty());
+        assertTrue(searchIndex.search("quixotic").isEmpty());
+    }
+
+    @Test
+    public void NoteService_WritesRolledBack_KeepNoteCount() {
+        NoteDTO created = noteService.create(note("counted", "counted body"));
+        long total = noteCounter.total();
+
+        rollingBack(() -> noteService.createAll(List.of(note("first", "body"), note("second", "body"))));
+        assertEquals(total, noteCounter.total());
+
+        rollingBack(() -> noteService.deleteAll(List.of(created.getId())));
+        assertEquals(total, noteCounter.total());
+
+        noteService.deleteAll(List.of(created.getId()));
+        assertEquals(total - 1, noteCounter.total());
+    }
+
+    @Test
+    public void NoteService_DeleteAllRolledBack_KeepsIndexAndCache() {
+        NoteDTO created = noteService.create(note("kept", "zephyr body"));
+        noteService.findOne(created.getId());
+
+        rollingBack(() -> noteService.deleteAll(List.of(created.getId())));
+
+        assertTrue(noteCache.getIfPresent(created.getId()).isPresent());
+        assertEquals(1, searchIndex.search("zephyr").size());
+        assertEquals(created.getTitle(), noteService.findOne(created.getId()).getTitle());
+    }
+
+    @Test
+    public void NoteService_UpdateAll_WritesThroughAfterCommit() {
+        NoteDTO created = noteService.create(note("before", "original body"));
+
+        noteService.updateAll(List.of(NoteDTO.builder()
+                .id(created.getId())
+                .title("after")
+                .body("jubilant body")
+                .build()));
+
+        assertEquals("after", noteCache.getIfPresent(created.getId()).orElseThrow().getTitle());
+        assertEquals(1, searchIndex.search("jubilant").size());
+    }
+
+    @Test
+    public void NoteService_DeleteAll_InvalidatesAfterCommit() {
+        NoteDTO created = noteService.create(note("gone", "ephemeral body"));
+        noteService.findOne(created.getId());
+
+        noteService.deleteAll(List.of(created.getId()));
+
+        assertTrue(noteCache.getIfPresent(created.getId()).isEmpty());
+        assertTrue(searchIndex.search("ephemeral").isEmpty());
+        assertThrows(NotFoundError.class, () -> noteService.findOne(created.getId()));
+    }
+
+    @Test
+    public void NoteService_WalkCursorPagesWithTies_ReturnsEveryNoteOnce() {
+        noteService.createAll(IntStream.range(0, 23)
+                .mapToObj(i -> note(i % 3 == 0 ? STR."tied \{i}" : "tied", "tied body"))
+                .toList());
+
+        for (String sortBy : List.of("title", "dateCreated")) {
+            List<Long> expected = noteRepository.findAll(Sort.by(sortBy, "id")).stream()
+                    .map(Note::getId)
+                    .toList();
+
+            assertEquals(expected, walkCursorPages(sortBy, ""), sortBy);
+            assertEquals(expected, walkCursorPages(sortBy, "id,title"), sortBy);
+        }
+    }
+
+    @Test
+    public void NoteService_SearchPages_FollowSortOrderOfIndex() {
+        noteService.createAll(List.of(
+                note("Mango", "kumquat"),
+                note("Apple", "kumquat"),
+                note("Mango", "kumquat kumquat"),
+                note("Cherry", "kumquat"),
+                note("Banana", "no match")
+        ));
+
+        List<String> titles = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            PaginateParamsDTO params = new PaginateParamsDTO();
+            params.setQuery("kumquat");
+            params.setSortBy("title");
+            params.setPageSize(2);
+            params.setPage(page);
+
+            PaginatedDTO<NoteDTO> result = noteService.findAll(params);
+            assertEquals(4, result.getTotalItems());
+            result.getItems().forEach(note -> {
+                titles.add(note.getTitle());
+                ids.add(note.getId());
+            });
+        }
+
+        assertEquals(List.of("Apple", "Cherry", "Mango", "Mango"), titles);
+        assertTrue(ids.get(2) < ids.get(3));
+    }
+
+    @Test
+    public void NoteService_BodyLongerThanInline_ReadsWholeBodyBack() {
+        String body = "compressible " + "long body ".repeat(400);
+        NoteDTO created = noteService.create(note("Long body note", body));
+        noteCache.invalidate(created.getId());
+
+        Note stored = noteRepository.findById(created.getId()).orElseThrow();
+        assertTrue(stored.isBodyCompressed());
+        assertTrue(stored.getBody().length() < body.length());
+
+        assertEquals(body, noteService.findOne(created.getId()).getBody());
+
+        PaginateParamsDTO params = new PaginateParamsDTO();
+        params.setQuery("compressible");
+        assertEquals(body, noteService.findAll(params).getItems().getFirst().getBody());
+
+        params.setSortBy("dateCreated");
+        params.setCursor("");
+        params.setPageSize(1000);
+        params.setQuery("");
+        assertEquals(body, noteService.findAll(params).getItems().stream()
+                .filter(note -> note.getId() == created.getId())
+                .findFirst()
+                .orElseThrow()
+                .getBody());
+
+        List<NoteDTO> exported = new ArrayList<>();
+        ExportParamsDTO exportParams = new ExportParamsDTO();
+        exportParams.setQuery("body note");
+        noteService.exportAll(exportParams, exported::add);
+        assertEquals(List.of(body), exported.stream().map(NoteDTO::getBody).toList());
+    }
+
+    @Test
+    public void NoteService_CursorOfAnotherSort_ThrowsSimpleError() {
+        PaginateParamsDTO params = new PaginateParamsDTO();
+        params.setSortBy("title");
+        params.setCursor(new KeysetCursor("dateCreated", "1715000000000", 1L).encode());
+
+        assertThrows(SimpleError.class, () -> noteService.findAll(params));
+    }
+
+    @Test
+    public void NoteService_CursorWithNonNumericDate_ThrowsSimpleError() {
+        PaginateParamsDTO params = new PaginateParamsDTO();
+        params.setSortBy("dateCreated");
+        params.setCursor(new KeysetCursor("dateCreated", "yesterday", 1L).encode());
+
+        assertThrows(SimpleError.class, () -> noteService.findAll(params));
+    }
+
+    private List<Long> walkCursorPages(String sortBy, String fields) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = "";
+        while (true) {
+            PaginateParamsDTO params = new PaginateParamsDTO();
+            params.setSortBy(sortBy);
+            params.setFields(fields);
+            params.setPageSize(4);
+            params.setCursor(cursor);
+
+            PaginatedDTO<NoteDTO> page = noteService.findAll(params);
+            page.getItems().forEach(note -> ids.add(note.getId()));
+            if (!page.isHasNext()) {
+                return ids;
+            }
+            cursor = page.getNextCursor();
+        }
+    }
+
+    @Test
+    public void NoteService_DeleteOneMissing_ThrowsNotFound() {
+        NoteDTO created = noteService.create(note("deleted once", "body"));
+        long count = noteRepository.count();
+
+        noteService.deleteOne(created.getId());
+
+        assertEquals(count - 1, noteRepository.count());
+        assertTrue(noteRepository.findById(created.getId()).isEmpty());
+        assertThrows(NotFoundError.class, () -> noteService.deleteOne(created.getId()));
+        assertEquals(count - 1, noteRepository.count());
+    }
+
+    @Test
+    public void NoteRepository_DeleteNoteById_ReturnsDeletedRowCount() {
+        NoteDTO created = noteService.create(note("deleted by id", "body"));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        assertEquals(1, (int) transaction.execute(status -> noteRepository.deleteNoteById(created.getId())));
+        assertEquals(0, (int) transaction.execute(status -> noteRepository.deleteNoteById(created.getId())));
+    }
+
+    @Test
+    public void NoteService_DeleteAllAcrossChunksWithDuplicates_DeletesEveryNoteOnce() {
+        List<NoteDTO> created = noteService.createAll(IntStream.range(0, 1200)
+                .mapToObj(i -> note(STR."chunked \{i}", "body"))
+                .toList());
+        Set<Long> createdIds = new HashSet<>();
+        created.forEach(note -> createdIds.add(note.getId()));
+
+        List<Long> ids = new ArrayList<>(createdIds);
+        ids.addAll(ids.subList(0, 300));
+        ids.add(Long.MAX_VALUE);
+        ids.add(Long.MAX_VALUE - 1);
+        long count = noteRepository.count();
+        long total = noteCounter.total();
+
+        Set<Long> deleted = noteService.deleteAll(ids);
+
+        assertEquals(createdIds, deleted);
+        assertEquals(count - 1200, noteRepository.count());
+        assertEquals(total - 1200, noteCounter.total());
+        assertTrue(noteRepository.findExistingIds(createdIds).isEmpty());
+    }
+
+    private void rollingBack(Runnable action) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            action.run();
+            status.setRollbackOnly();
+        });
+    }
+
+    private static NoteDTO note(String title, String body) {
+        return NoteDTO.builder().title(title).body(body).build();
+    }
+}
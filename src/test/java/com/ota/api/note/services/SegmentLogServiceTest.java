@@ -0,0 +1,104 @@
+package com.ota.api.note.services;
+
+import com.ota.api.note.Config;
+import com.ota.api.note.errors.SimpleError;
+import com.ota.api.note.logstore.SegmentLogStore;
+import com.ota.api.note.models.dto.LogDTO;
+import com.ota.api.note.models.dto.LogQueryParamsDTO;
+import com.ota.api.note.models.dto.PaginatedDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SegmentLogServiceTest {
+    private static final Instant START = Instant.parse("2024-05-18T00:00:00Z");
+
+    @TempDir
+    private Path directory;
+
+    private SegmentLogService logService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Config.LogStore settings = new Config.LogStore(
+                "segment", this.directory.toString(), DataSize.ofKilobytes(8), DataSize.ofMegabytes(1), Duration.ofDays(7), 16);
+        logService = new SegmentLogService(new SegmentLogStore(settings));
+        logService.open();
+
+        for (int i = 0; i < 100; i++) {
+            logService.write(LogDTO.builder()
+                    .tracingId(STR."trace-\{i % 10}")
+                    .method("GET")
+                    .path(i % 2 == 0 ? STR."/api/notes/\{i}" : "/api/stats/note-cache")
+                    .status(i % 5 == 0 ? 500 : 200)
+                    .timestamp(START.plusSeconds(i).toString())
+                    .build());
+        }
+    }
+
+    @Test
+    public void SegmentLogService_FindByFilters_PagesWithCursor() {
+        LogQueryParamsDTO params = new LogQueryParamsDTO();
+        params.setPath("/api/notes");
+        params.setMinStatus(500);
+        params.setPageSize(4);
+
+        PaginatedDTO<LogDTO> first = logService.find(params);
+        assertEquals(4, first.getItems().size());
+        assertTrue(first.isHasNext());
+        assertEquals("/api/notes/30", first.getItems().getLast().getPath());
+
+        params.setCursor(first.getNextCursor());
+        PaginatedDTO<LogDTO> second = logService.find(params);
+        assertEquals(4, second.getItems().size());
+        assertEquals("/api/notes/40", second.getItems().getFirst().getPath());
+
+        params.setCursor(second.getNextCursor());
+        PaginatedDTO<LogDTO> last = logService.find(params);
+        assertEquals(2, last.getItems().size());
+        assertFalse(last.isHasNext());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    public void SegmentLogService_FindByTracingIdAndWindow_ReturnsOnlyMatches() {
+        LogQueryParamsDTO params = new LogQueryParamsDTO();
+        params.setTracingId("trace-3");
+        params.setFrom(START.plusSeconds(20).toString());
+        params.setTo(START.plusSeconds(60).toString());
+
+        PaginatedDTO<LogDTO> page = logService.find(params);
+        assertEquals(4, page.getItems().size());
+        assertEquals(START.plusSeconds(23).toString(), page.getItems().getFirst().getTimestamp());
+        assertEquals(-1, page.getTotalItems());
+    }
+
+    @Test
+    public void SegmentLogService_FindWithMalformedTimestamp_Throws() {
+        LogQueryParamsDTO params = new LogQueryParamsDTO();
+        params.setFrom("yesterday");
+
+        assertThrows(SimpleError.class, () -> logService.find(params));
+    }
+
+    @Test
+    public void SegmentLogService_Stats_CountsWrittenRecords() {
+        SegmentLogService.Stats stats = logService.stats();
+
+        assertEquals(100, stats.written());
+        assertEquals(0, stats.dropped());
+        assertTrue(stats.segments() > 0);
+    }
+}
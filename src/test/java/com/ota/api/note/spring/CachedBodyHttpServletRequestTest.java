@@ -0,0 +1,52 @@
+package com.ota.api.note.spring;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CachedBodyHttpServletRequestTest {
+    @Test
+    public void CachedBodyHttpServletRequest_Unread_CapturesNothing() {
+        CaptureBuffer capture = new CaptureBuffer(1024);
+        CachedBodyHttpServletRequest request = new CachedBodyHttpServletRequest(request("{\"title\":\"hello\"}"), capture);
+
+        assertEquals("", request.getBody());
+        assertEquals(0, capture.size());
+    }
+
+    @Test
+    public void CachedBodyHttpServletRequest_ReadWithReader_KeepsNewlinesAndCharset() throws Exception {
+        CachedBodyHttpServletRequest request = new CachedBodyHttpServletRequest(request("héllo\nwörld"), new CaptureBuffer(1024));
+
+        BufferedReader reader = request.getReader();
+        while (reader.readLine() != null) {
+            // drain the body like a message converter would
+        }
+
+        assertEquals("héllo\nwörld", request.getBody());
+    }
+
+    @Test
+    public void CachedBodyHttpServletRequest_ReadPastCapacity_TruncatesCopyOnly() throws Exception {
+        CaptureBuffer capture = new CaptureBuffer(4);
+        CachedBodyHttpServletRequest request = new CachedBodyHttpServletRequest(request("0123456789"), capture);
+
+        byte[] body = request.getInputStream().readAllBytes();
+
+        assertEquals(10, body.length);
+        assertEquals("0123", request.getBody());
+        assertTrue(capture.isTruncated());
+    }
+
+    private MockHttpServletRequest request(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/notes");
+        request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
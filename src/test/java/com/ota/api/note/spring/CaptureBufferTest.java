@@ -0,0 +1,64 @@
+package com.ota.api.note.spring;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CaptureBufferTest {
+    @Test
+    public void CaptureBuffer_WritePastCapacity_TruncatesCopyOnly() throws Exception {
+        ByteArrayOutputStream client = new ByteArrayOutputStream();
+        CaptureBuffer capture = new CaptureBuffer(8);
+        CachedBodyServletOutputStream outputStream = new CachedBodyServletOutputStream(client, capture);
+
+        byte[] body = "{\"title\":\"hello\"}".getBytes(StandardCharsets.UTF_8);
+        outputStream.write(body, 0, body.length);
+        outputStream.write('\n');
+
+        assertEquals(body.length + 1, client.size());
+        assertEquals("{\"title\"", capture.toString(StandardCharsets.UTF_8));
+        assertTrue(capture.isTruncated());
+        assertEquals("{\"title\"" + CaptureBuffer.TRUNCATED_MARKER, capture.toBody(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void CaptureBuffer_WriteLargeBody_GrowsPastInitialCapacity() {
+        CaptureBuffer capture = new CaptureBuffer(64 * 1024);
+        byte[] chunk = "0123456789".repeat(100).getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < 5; i++) {
+            capture.write(chunk, 0, chunk.length);
+        }
+
+        assertEquals(5000, capture.size());
+        assertFalse(capture.isTruncated());
+    }
+
+    @Test
+    public void CaptureBufferPool_Release_ReusesEmptyBuffer() {
+        CaptureBufferPool pool = new CaptureBufferPool(16, 1);
+        CaptureBuffer capture = pool.acquire();
+        capture.write(1);
+        pool.release(capture);
+
+        CaptureBuffer reused = pool.acquire();
+        assertSame(capture, reused);
+        assertEquals(0, reused.size());
+    }
+
+    @Test
+    public void CaptureBufferPool_ReleaseGrownPastRetained_DropsBuffer() {
+        CaptureBufferPool pool = new CaptureBufferPool(8192, 1, 2048);
+        CaptureBuffer capture = pool.acquire();
+        capture.write(new byte[4096], 0, 4096);
+        pool.release(capture);
+
+        assertNotSame(capture, pool.acquire());
+    }
+}
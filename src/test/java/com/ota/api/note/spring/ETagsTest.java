@@ -0,0 +1,47 @@
+package com.ota.api.note.spring;
+
+import com.ota.api.note.models.dto.NoteDTO;
+import com.ota.api.note.models.dto.PaginateParamsDTO;
+import com.ota.api.note.models.dto.PaginatedDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class ETagsTest {
+    @Test
+    public void ETags_SamePageTwice_ReturnsSameTag() {
+        assertEquals(ETags.forPage(params("exact"), page("exact")), ETags.forPage(params("exact"), page("exact")));
+    }
+
+    @Test
+    public void ETags_SamePageWithTwoCountModes_ReturnsDifferentTags() {
+        assertNotEquals(ETags.forPage(params("exact"), page("exact")), ETags.forPage(params("cached"), page("cached")));
+    }
+
+    @Test
+    public void ETags_SamePageWithTwoEffectiveCountStrategies_ReturnsDifferentTags() {
+        // a cursor page is never counted, whatever the count mode requested
+        assertNotEquals(ETags.forPage(params("exact"), page("exact")), ETags.forPage(params("exact"), page("none")));
+    }
+
+    private static PaginateParamsDTO params(String count) {
+        PaginateParamsDTO params = new PaginateParamsDTO();
+        params.setCount(count);
+        return params;
+    }
+
+    private static PaginatedDTO<NoteDTO> page(String countStrategy) {
+        return PaginatedDTO.<NoteDTO>builder()
+                .items(List.of(
+                        NoteDTO.builder().id(1).title("First").version(0L).build(),
+                        NoteDTO.builder().id(2).title("Second").version(3L).build()
+                ))
+                .totalPages(1)
+                .totalItems(2)
+                .countStrategy(countStrategy)
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.ota.api.note.spring;
+
+import jakarta.servlet.ServletOutputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class GzipHttpServletResponseTest {
+    private final DeflaterPool deflaterPool = new DeflaterPool(6, 4);
+
+    @Test
+    public void GzipHttpServletResponse_LargeJson_IsCompressed() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        GzipHttpServletResponse gzipResponse = wrap(response);
+        gzipResponse.setContentType("application/json");
+        gzipResponse.setHeader("ETag", "\"1-v3\"");
+        gzipResponse.setContentLength(4096);
+
+        byte[] body = json(4096);
+        gzipResponse.getOutputStream().write(body);
+        gzipResponse.finish();
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertEquals("\"1-v3--gzip\"", response.getHeader("ETag"));
+        assertNull(response.getHeader("Content-Length"));
+        assertArrayEquals(body, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    public void GzipHttpServletResponse_SmallJson_IsSentAsIs() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        GzipHttpServletResponse gzipResponse = wrap(response);
+        gzipResponse.setContentType("application/json");
+
+        byte[] body = json(100);
+        gzipResponse.getOutputStream().write(body);
+        gzipResponse.flushBuffer();
+        gzipResponse.finish();
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertEquals(100, response.getContentLength());
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void GzipHttpServletResponse_IncompressibleType_IsSentAsIs() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        GzipHttpServletResponse gzipResponse = wrap(response);
+        gzipResponse.setContentType("image/png");
+
+        byte[] body = json(4096);
+        gzipResponse.getOutputStream().write(body);
+        gzipResponse.finish();
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertNull(response.getHeader("Vary"));
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void GzipHttpServletResponse_FlushedStream_DecompressesWhole() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        GzipHttpServletResponse gzipResponse = wrap(response);
+        gzipResponse.setContentType("application/x-ndjson");
+
+        byte[] body = json(3000);
+        ServletOutputStream outputStream = gzipResponse.getOutputStream();
+        outputStream.write(body, 0, 2000);
+        outputStream.flush();
+        outputStream.write(body, 2000, 1000);
+        gzipResponse.finish();
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertArrayEquals(body, gunzip(response.getContentAsByteArray()));
+    }
+
+    private GzipHttpServletResponse wrap(MockHttpServletResponse response) {
+        return new GzipHttpServletResponse(response, deflaterPool, 1024, Set.of("application/json", "application/x-ndjson"));
+    }
+
+    private static byte[] json(int size) {
+        StringBuilder json = new StringBuilder();
+        while (json.length() < size) {
+            json.append("{\"title\": \"title\", \"body\": \"body\"}\n");
+        }
+        return json.substring(0, size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return inputStream.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ota.api.note.spring;
+
+import com.ota.api.note.errors.SimpleError;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class KeysetCursorTest {
+    @Test
+    public void KeysetCursor_EncodeThenDecode_ReturnsSameCursor() {
+        KeysetCursor cursor = new KeysetCursor("dateCreated", "1715000000000", 42L);
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    public void KeysetCursor_KeyWithColons_RoundTrips() {
+        KeysetCursor cursor = new KeysetCursor("title", "Meeting: 10:30 with team:", 7L);
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        assertEquals("Meeting: 10:30 with team:", decoded.key());
+        assertEquals(7L, decoded.id());
+    }
+
+    @Test
+    public void KeysetCursor_EmptyKey_RoundTrips() {
+        KeysetCursor cursor = new KeysetCursor("title", "", 3L);
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    public void KeysetCursor_NotBase64_ThrowsSimpleError() {
+        assertThrows(SimpleError.class, () -> KeysetCursor.decode("not a cursor!"));
+    }
+
+    @Test
+    public void KeysetCursor_MissingParts_ThrowsSimpleError() {
+        assertThrows(SimpleError.class, () -> KeysetCursor.decode(encode("title:12")));
+    }
+
+    @Test
+    public void KeysetCursor_NonNumericId_ThrowsSimpleError() {
+        assertThrows(SimpleError.class, () -> KeysetCursor.decode(encode("title:twelve:key")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
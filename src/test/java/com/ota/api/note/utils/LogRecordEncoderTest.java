@@ -0,0 +1,36 @@
+package com.ota.api.note.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ota.api.note.models.dto.LogDTO;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class LogRecordEncoderTest {
+    @Test
+    public void LogRecordEncoder_Encode_MatchesObjectMapper() {
+        LogDTO logDTO = LogDTO.builder()
+                .tracingId("trace-1")
+                .ipAddress("127.0.0.1")
+                .method("POST")
+                .path("/api/notes/")
+                .status(201)
+                .requestBody("{\"title\": \"line\none\ttab \\\\ ünïcödé \u0001\"}")
+                .timestamp("2024-05-13T11:33:20.123Z")
+                .build();
+
+        assertEquals(JSONUtils.stringify(logDTO), LogRecordEncoder.encode(logDTO));
+    }
+
+    @Test
+    public void LogRecordEncoder_EncodeBody_RoundTrips() throws Exception {
+        String body = "{\"body\": \"quotes \\\" and\r\nnewlines\"}";
+        LogDTO logDTO = LogDTO.builder().id(7L).responseBody(body).status(200).build();
+
+        String encoded = LogRecordEncoder.encode(logDTO);
+
+        assertFalse(encoded.contains("\n"));
+        assertEquals(logDTO, new ObjectMapper().readValue(encoded, LogDTO.class));
+    }
+}
@@ -0,0 +1,62 @@
+package com.ota.api.note.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TraceIdGeneratorTest {
+    @Test
+    public void TraceIdGenerator_Next_ReturnsCrockfordBase32() {
+        String id = TraceIdGenerator.next();
+
+        assertEquals(TraceIdGenerator.LENGTH, id.length());
+        assertTrue(id.matches("[0-9A-HJKMNP-TV-Z]{26}"));
+    }
+
+    @Test
+    public void TraceIdGenerator_NextMany_AreUniqueAndOrdered() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(TraceIdGenerator.next());
+        }
+
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+        List<String> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        assertEquals(sorted, ids);
+    }
+
+    @Test
+    public void TraceIdGenerator_NextOnManyThreads_AreUnique() throws Exception {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 10_000; i++) {
+                executor.submit(() -> ids.add(TraceIdGenerator.next()));
+            }
+        }
+
+        assertEquals(10_000, ids.size());
+    }
+
+    @Test
+    public void TraceIdGenerator_Next_StartsWithTimestamp() {
+        long before = System.currentTimeMillis();
+        String id = TraceIdGenerator.next();
+        long after = System.currentTimeMillis();
+
+        long timestamp = 0;
+        for (char c : id.substring(0, 10).toCharArray()) {
+            timestamp = timestamp * 32 + "0123456789ABCDEFGHJKMNPQRSTVWXYZ".indexOf(c);
+        }
+        assertTrue(timestamp >= before && timestamp <= after);
+    }
+}